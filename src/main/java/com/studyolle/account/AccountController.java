@@ -3,11 +3,13 @@ package com.studyolle.account;
 
 import com.studyolle.domain.Account;
 import java.time.LocalDateTime;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.dom4j.rule.Mode;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
@@ -22,6 +24,7 @@ public class AccountController {
     private final SingUpFormValidator singUpFormValidator;
     private final AccountService accountService;
     private final AccountRepository accountRepository;
+    private final EmailRateLimiter emailRateLimiter;
 
     @InitBinder("signUpForm")
     public void initBinder(WebDataBinder webDataBinder) {
@@ -73,7 +76,15 @@ public class AccountController {
     }
 
     @GetMapping("/resend-confirm-email")
-    public String resendConfirmEmail(@CurrentUser Account account, Model model) {
+    public String resendConfirmEmail(@AuthenticationPrincipal UserAccount userAccount, HttpServletRequest request,
+        Model model) {
+        if(!emailRateLimiter.tryAcquire(userAccount.getEmail(), request.getRemoteAddr())) {
+            model.addAttribute("error","요청이 너무 많습니다. 잠시 후 다시 시도하세요");
+            model.addAttribute("email",userAccount.getEmail());
+            return "account/check-email";
+        }
+
+        Account account = accountRepository.findById(userAccount.getId()).orElseThrow();
         if(!account.canSendConfirmEmail()) {
             model.addAttribute("error","인증 이메일은 1시간에 한번만 전송 가능합니다");
             model.addAttribute("email",account.getEmail());
@@ -101,7 +112,13 @@ public class AccountController {
     }
 
     @PostMapping("/email-login")
-    public String sendEmailLoginLink(String email, Model model, RedirectAttributes attributes) {
+    public String sendEmailLoginLink(String email, HttpServletRequest request, Model model,
+        RedirectAttributes attributes) {
+        if(!emailRateLimiter.tryAcquire(email, request.getRemoteAddr())) {
+            model.addAttribute("error","요청이 너무 많습니다. 잠시 후 다시 시도하세요");
+            return "account/email-login";
+        }
+
         Account account = accountRepository.findByEmail(email);
         if(account==null) {
             model.addAttribute("error","유효한 이메일 주소가 아닙니다");
@@ -0,0 +1,185 @@
+package com.studyolle.account;
+
+import com.studyolle.account.AccountRepository.AccountKeys;
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Account;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 가입할 때 이메일, 닉네임 중복 확인을 Bloom filter 로 먼저 거른다. 필터에 없으면 DB 를 조회하지 않는다.
+ *
+ * <p>시작할 때 스냅샷 파일을 읽고, 스냅샷에 기록된 마지막 id 이후에 생긴 계정만 DB 에서 읽어 채운다.
+ * 스냅샷은 정상 종료할 때만 저장하고 읽자마자 지운다. 비정상 종료하면 다음에는 전체를 다시 읽는다.
+ * 계정 생성과 닉네임 변경은 {@link AccountService} 를 거쳐 이 서버의 메모리에만 반영하므로 서버가 한 대라고 가정한다.
+ * 서버를 여러 대 띄우면 다른 서버에서 바꾼 닉네임을 필터가 모른다.
+ */
+@Slf4j
+@Component
+public class AccountExistenceFilter {
+
+    static final long EXPECTED_ACCOUNTS = 1_000_000;
+    static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int SNAPSHOT_MAGIC = 0x53424631;
+
+    private final AccountRepository accountRepository;
+    private final Path snapshot;
+
+    private final BloomFilter emails = new BloomFilter(EXPECTED_ACCOUNTS, FALSE_POSITIVE_RATE);
+    private final BloomFilter nicknames = new BloomFilter(EXPECTED_ACCOUNTS, FALSE_POSITIVE_RATE);
+    private final AtomicLong maxAccountId = new AtomicLong();
+    private volatile boolean ready;
+
+    private final AtomicLong skippedQueries = new AtomicLong();
+    private final AtomicLong filterHits = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public AccountExistenceFilter(AccountRepository accountRepository, AppProperties appProperties) {
+        this.accountRepository = accountRepository;
+        this.snapshot = StringUtils.hasText(appProperties.getAccountFilterSnapshot())
+            ? Paths.get(appProperties.getAccountFilterSnapshot()).toAbsolutePath() : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        long fromId = loadSnapshot();
+        List<AccountKeys> chunk;
+        int scanned = 0;
+        do {
+            chunk = accountRepository.findTop1000ByIdGreaterThanOrderById(fromId);
+            for (AccountKeys keys : chunk) {
+                add(keys.getId(), keys.getEmail(), keys.getNickname());
+                fromId = keys.getId();
+            }
+            scanned += chunk.size();
+        } while (!chunk.isEmpty());
+        ready = true;
+        log.info("account filter ready: scanned {} accounts in {}ms", scanned, System.currentTimeMillis() - start);
+    }
+
+    public void add(Account account) {
+        add(account.getId(), account.getEmail(), account.getNickname());
+    }
+
+    public boolean existsByEmail(String email) {
+        if (ready && !emails.mightContain(email)) {
+            skippedQueries.incrementAndGet();
+            return false;
+        }
+        return record(accountRepository.existsByEmail(email));
+    }
+
+    public boolean existsByNickname(String nickname) {
+        if (ready && !nicknames.mightContain(nickname)) {
+            skippedQueries.incrementAndGet();
+            return false;
+        }
+        return record(accountRepository.existsByNickname(nickname));
+    }
+
+    private boolean record(boolean exists) {
+        if (ready) {
+            filterHits.incrementAndGet();
+            if (!exists) {
+                falsePositives.incrementAndGet();
+            }
+        }
+        return exists;
+    }
+
+    private void add(Long id, String email, String nickname) {
+        if (email != null) {
+            emails.put(email);
+        }
+        if (nickname != null) {
+            nicknames.put(nickname);
+        }
+        maxAccountId.accumulateAndGet(id, Math::max);
+    }
+
+    public long getSkippedQueryCount() {
+        return skippedQueries.get();
+    }
+
+    /** 필터가 있다고 했는데 DB 에는 없던 비율 */
+    public double getFalsePositiveRate() {
+        long hits = filterHits.get();
+        return hits == 0 ? 0 : (double) falsePositives.get() / hits;
+    }
+
+    /**
+     * 스냅샷을 읽고 스냅샷 이후에 생긴 계정을 찾기 시작할 id 를 돌려준다.
+     */
+    private long loadSnapshot() {
+        if (snapshot == null || !Files.exists(snapshot)) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not an account filter snapshot");
+            }
+            long savedMaxId = in.readLong();
+            // 스냅샷의 마지막 계정이 없으면 DB 가 초기화된 것이니 처음부터 읽는다
+            if (savedMaxId > 0 && !accountRepository.existsById(savedMaxId)) {
+                log.info("account filter snapshot does not match database, rebuilding");
+                return 0;
+            }
+            emails.mergeFrom(in);
+            nicknames.mergeFrom(in);
+            maxAccountId.accumulateAndGet(savedMaxId, Math::max);
+            return savedMaxId;
+        } catch (IOException e) {
+            log.warn("failed to load account filter snapshot, rebuilding", e);
+            return 0;
+        } finally {
+            deleteSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshot == null || !ready) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(snapshot.getParent());
+            Path temp = Files.createTempFile(snapshot.getParent(), "account-filter", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(maxAccountId.get());
+                emails.writeTo(out);
+                nicknames.writeTo(out);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("failed to save account filter snapshot", e);
+        }
+    }
+
+    private void deleteSnapshot() {
+        try {
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            log.warn("failed to delete account filter snapshot", e);
+        }
+    }
+}
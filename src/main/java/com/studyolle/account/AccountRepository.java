@@ -1,7 +1,11 @@
 package com.studyolle.account;
 
 import com.studyolle.domain.Account;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(readOnly = true)
@@ -14,4 +18,43 @@ public interface AccountRepository extends JpaRepository<Account,Long> {
     Account findByEmail(String email);
 
     Account findByNickname(String nickname);
+
+    Account findByEmailOrNickname(String email, String nickname);
+
+    List<AccountKeys> findTop1000ByIdGreaterThanOrderById(Long id);
+
+    // 조인 테이블에 바로 넣고 지운다. 이미 있는 행은 다시 넣지 않고, 없는 행은 지우지 않는다.
+    // 영속성 컨텍스트에 올라와 있는 Account의 컬렉션은 갱신되지 않는다.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into account_tags (account_id, tags_id) select :accountId, r.id from tag r"
+        + " where r.id in (:ids) and not exists"
+        + " (select 1 from account_tags j where j.account_id = :accountId and j.tags_id = r.id)", nativeQuery = true)
+    int addTags(Long accountId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from account_tags where account_id = :accountId and tags_id in (:ids)", nativeQuery = true)
+    int removeTags(Long accountId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into account_zones (account_id, zones_id) select :accountId, r.id from zone r"
+        + " where r.id in (:ids) and not exists"
+        + " (select 1 from account_zones j where j.account_id = :accountId and j.zones_id = r.id)", nativeQuery = true)
+    int addZones(Long accountId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from account_zones where account_id = :accountId and zones_id in (:ids)", nativeQuery = true)
+    int removeZones(Long accountId, Collection<Long> ids);
+
+    interface AccountKeys {
+
+        Long getId();
+
+        String getEmail();
+
+        String getNickname();
+    }
 }
@@ -1,17 +1,21 @@
 package com.studyolle.account;
 
 
-import com.studyolle.config.AppProperties;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Tag;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.ImageService;
 import com.studyolle.mail.EmailMessage;
-import com.studyolle.mail.EmailService;
+import com.studyolle.mail.EmailOutboxService;
+import com.studyolle.mail.LinkMailRenderer;
 import com.studyolle.settings.form.Notifications;
 import com.studyolle.settings.form.Profile;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -29,8 +33,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
@@ -39,11 +42,13 @@ import org.thymeleaf.context.Context;
 public class AccountService implements UserDetailsService {
 
     private final AccountRepository accountRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
-    private final TemplateEngine templateEngine;
-    private final AppProperties appProperties;
+    private final LinkMailRenderer linkMailRenderer;
+    private final ImageService imageService;
+    private final UserAccountCache userAccountCache;
+    private final AccountExistenceFilter accountExistenceFilter;
 
     public Account processNewAccount(SignUpForm signUpForm) {
         Account newAccount = saveNewAccount(signUpForm);
@@ -58,25 +63,22 @@ public class AccountService implements UserDetailsService {
         account.generateEmailCheckToken();
 
         Account newAccount = accountRepository.save(account);
+        userAccountCache.invalidate(newAccount);
+        accountExistenceFilter.add(newAccount);
         return newAccount;
     }
 
     public void sendSignUpConfirmEmail(Account newAccount) {
-        Context context = new Context();
-        context.setVariable("link","/check-email-token?token=" + newAccount.getEmailCheckToken()+ "&email="+ newAccount.getEmail());
-        context.setVariable("nickname",newAccount.getNickname());
-        context.setVariable("linkName","이메일 인증하기");
-        context.setVariable("message","스터디올래 서비스를 사용하려면 링크를 클릭하세요");
-        context.setVariable("host",appProperties.getHost());
-
-        String message = templateEngine.process("mail/simple-link", context);
+        String message = linkMailRenderer.render("이메일 인증하기", "스터디올래 서비스를 사용하려면 링크를 클릭하세요",
+            newAccount.getNickname(),
+            "/check-email-token?token=" + newAccount.getEmailCheckToken()+ "&email="+ newAccount.getEmail());
 
         EmailMessage emailMessage = EmailMessage.builder()
             .to(newAccount.getEmail())
             .subject("스터디올래 회원 가입 인증")
             .message(message)
             .build();
-        emailService.sendEmail(emailMessage);
+        emailOutboxService.enqueue(emailMessage);
 //        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
 //        try {
 //            MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, false,"UTF-8");
@@ -109,26 +111,33 @@ public class AccountService implements UserDetailsService {
     @Transactional(readOnly = true)
     @Override
     public UserDetails loadUserByUsername(String emailOrNickname) throws UsernameNotFoundException {
-        Account account = accountRepository.findByEmail(emailOrNickname);
-        if(account == null) {
-            account = accountRepository.findByNickname(emailOrNickname);
-        }
+        UserAccount userAccount = userAccountCache.get(emailOrNickname, key -> {
+            Account account = accountRepository.findByEmailOrNickname(key, key);
+            return account == null ? null : new UserAccount(account);
+        });
 
-        if(account == null) {
+        if(userAccount == null) {
             throw new UsernameNotFoundException(emailOrNickname);
         }
 
-        return new UserAccount(account);
+        return userAccount;
 
     }
 
     public void completeSignUp(Account account) {
         account.completeSignUp();
+        userAccountCache.invalidate(account);
         login(account);
     }
 
     public void updateProfile(Account account, Profile profile) {
+        // 새 이미지를 고른 경우에만 data URL 이 넘어온다. 형식이 틀리면 계정을 바꾸기 전에 IllegalArgumentException 이 난다.
+        String imageHash = StringUtils.hasText(profile.getProfileImage())
+            ? imageService.storeDataUrl(profile.getProfileImage()) : null;
         modelMapper.map(profile,account);
+        if (imageHash != null) {
+            account.setProfileImageHash(imageHash);
+        }
 
 //        account.setUrl(profile.getUrl());
 //        account.setOccupation(profile.getOccupation());
@@ -141,6 +150,7 @@ public class AccountService implements UserDetailsService {
     public void updatePassword(Account account, String newPassword) {
         account.setPassword(passwordEncoder.encode(newPassword));
         accountRepository.save(account);
+        userAccountCache.invalidate(account);
     }
 
     public void updateNotifications(Account account, Notifications notifications) {
@@ -152,30 +162,29 @@ public class AccountService implements UserDetailsService {
 //        account.setStudyEnrollmentResultByEmail(notifications.isStudyEnrollmentResultByEmail());
 //        account.setStudyEnrollmentResultByWeb(notifications.isStudyEnrollmentResultByWeb());
         accountRepository.save(account);
+        userAccountCache.invalidate(account); // UserAccount 가 웹 알림 설정을 들고 있다
     }
 
     public void updateNickname(Account account, String nickname) {
+        userAccountCache.invalidate(account);
         account.setNickname(nickname);
         accountRepository.save(account);
+        userAccountCache.invalidate(account);
+        accountExistenceFilter.add(account);
         login(account); // 로그인을 다시 해줌
     }
 
     public void sendLoginLink(Account account) {
-        Context context = new Context();
-        context.setVariable("link","/login-by-email?token=" + account.getEmailCheckToken() + "&email=" + account.getEmail());
-        context.setVariable("nickname",account.getNickname());
-        context.setVariable("linkName","이메일로 로그인하기");
-        context.setVariable("message","로그인하려면 아래 링크를 클릭하세요");
-        context.setVariable("host",appProperties.getHost());
-
-        String message = templateEngine.process("mail/simple-link", context);
+        String message = linkMailRenderer.render("이메일로 로그인하기", "로그인하려면 아래 링크를 클릭하세요",
+            account.getNickname(),
+            "/login-by-email?token=" + account.getEmailCheckToken() + "&email=" + account.getEmail());
 
         EmailMessage emailMessage = EmailMessage.builder()
                 .to(account.getEmail())
                     .subject("스터디올래 로그인 링크")
                         .message(message)
                             .build();
-        emailService.sendEmail(emailMessage);
+        emailOutboxService.enqueue(emailMessage);
 
 //        account.generateEmailCheckToken();
 //        SimpleMailMessage mailMessage = new SimpleMailMessage();
@@ -185,9 +194,33 @@ public class AccountService implements UserDetailsService {
 //        javaMailSender.send(mailMessage);
     }
 
+    /**
+     * 조인 테이블에서 바로 지우고 넣는다. 계정의 태그 컬렉션은 읽지 않는다.
+     */
+    public void updateTags(Account account, Collection<Tag> added, Collection<Tag> removed) {
+        if (!removed.isEmpty()) {
+            accountRepository.removeTags(account.getId(), idsOf(removed, Tag::getId));
+        }
+        if (!added.isEmpty()) {
+            accountRepository.addTags(account.getId(), idsOf(added, Tag::getId));
+        }
+    }
+
+    public void updateZones(Account account, Collection<Zone> added, Collection<Zone> removed) {
+        if (!removed.isEmpty()) {
+            accountRepository.removeZones(account.getId(), idsOf(removed, Zone::getId));
+        }
+        if (!added.isEmpty()) {
+            accountRepository.addZones(account.getId(), idsOf(added, Zone::getId));
+        }
+    }
+
+    private <T> Set<Long> idsOf(Collection<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toSet());
+    }
+
     public void addTag(Account account, Tag tag) {
-        Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a -> a.getTags().add(tag));
+        accountRepository.addTags(account.getId(), Set.of(tag.getId()));
     }
 
     public Set<Tag> getTags(Account account) {
@@ -196,8 +229,7 @@ public class AccountService implements UserDetailsService {
     }
 
     public void removeTag(Account account, Tag tag) {
-        Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a-> a.getTags().remove(tag));
+        accountRepository.removeTags(account.getId(), Set.of(tag.getId()));
     }
 
     public Set<Zone> getZones(Account account) {
@@ -206,13 +238,11 @@ public class AccountService implements UserDetailsService {
     }
 
     public void addZone(Account account, Zone zone) {
-        Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a -> a.getZones().add(zone));
+        accountRepository.addZones(account.getId(), Set.of(zone.getId()));
     }
 
     public void removeZone(Account account, Zone zone) {
-        Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a -> a.getZones().remove(zone));
+        accountRepository.removeZones(account.getId(), Set.of(zone.getId()));
     }
 
     public Account getAccount(String nickname) {
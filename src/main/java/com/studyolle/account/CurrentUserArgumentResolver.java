@@ -0,0 +1,53 @@
+package com.studyolle.account;
+
+import com.studyolle.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * @CurrentUser Account 파라미터를 세션의 UserAccount id 로 조회해서 넣어준다.
+ * 핸들러가 요청할 때만 조회하고, 한 요청 안에서는 한 번만 조회한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String CURRENT_ACCOUNT = CurrentUserArgumentResolver.class.getName() + ".account";
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+            && Account.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+        NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserAccount)) {
+            return null;
+        }
+
+        Object cached = webRequest.getAttribute(CURRENT_ACCOUNT, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null) {
+            return cached;
+        }
+
+        UserAccount userAccount = (UserAccount) authentication.getPrincipal();
+        Account account = accountRepository.findById(userAccount.getId()).orElse(null);
+        if (account != null) {
+            webRequest.setAttribute(CURRENT_ACCOUNT, account, RequestAttributes.SCOPE_REQUEST);
+        }
+        return account;
+    }
+}
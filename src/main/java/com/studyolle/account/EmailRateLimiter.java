@@ -0,0 +1,32 @@
+package com.studyolle.account;
+
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메일을 보내는 요청(이메일 로그인, 인증 메일 재전송)을 DB 를 조회하기 전에 이메일과 IP 별로 제한한다.
+ * 한 시간에 한 번만 보내는 규칙은 여전히 {@link com.studyolle.domain.Account#canSendConfirmEmail()} 가 맡는다.
+ */
+@Component
+public class EmailRateLimiter {
+
+    private static final Duration REFILL_PERIOD = Duration.ofHours(1);
+    private static final int MAX_KEYS = 100_000;
+
+    private final StripedRateLimiter byEmail = new StripedRateLimiter(5, REFILL_PERIOD, MAX_KEYS);
+    private final StripedRateLimiter byIp = new StripedRateLimiter(30, REFILL_PERIOD, MAX_KEYS);
+
+    public boolean tryAcquire(String email, String remoteAddr) {
+        return byIp.tryAcquire(remoteAddr)
+            && byEmail.tryAcquire(email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public long getRejectedByEmailCount() {
+        return byEmail.getRejectedCount();
+    }
+
+    public long getRejectedByIpCount() {
+        return byIp.getRejectedCount();
+    }
+}
@@ -0,0 +1,54 @@
+package com.studyolle.account;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.AbstractRememberMeServices;
+import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
+
+/**
+ * remember-me 토큰 저장소. 만료된 토큰을 주기적으로 나눠서 지운다.
+ * <p>
+ * 토큰은 서버 메모리에 캐시하지 않는다. 서버가 여러 대일 때 다른 서버가 바꾼 토큰을 옛 값으로 읽으면
+ * 정상 사용자를 토큰 탈취(CookieTheftException)로 판단해 로그인을 모두 끊어버리기 때문이다.
+ * rotation 마다 토큰 값이 바뀌므로 조회와 갱신은 항상 DB로 바로 간다.
+ */
+@Slf4j
+public class PurgingTokenRepository extends JdbcTokenRepositoryImpl {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final long TOKEN_VALIDITY_MILLIS = AbstractRememberMeServices.TWO_WEEKS_S * 1000L;
+
+    public PurgingTokenRepository(JdbcTemplate jdbcTemplate) {
+        setJdbcTemplate(jdbcTemplate);
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 60 * 1000)
+    public void purgeExpiredTokens() {
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        Timestamp expiredBefore = new Timestamp(System.currentTimeMillis() - TOKEN_VALIDITY_MILLIS);
+        int purged = 0;
+        List<String> series;
+        do {
+            series = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("select series from persistent_logins where last_used < ?");
+                ps.setTimestamp(1, expiredBefore);
+                ps.setMaxRows(BATCH_SIZE);
+                return ps;
+            }, (rs, rowNum) -> rs.getString(1));
+
+            jdbcTemplate.batchUpdate("delete from persistent_logins where series = ? and last_used < ?",
+                series.stream().map(s -> new Object[]{s, expiredBefore}).collect(Collectors.toList()));
+            purged += series.size();
+        } while (series.size() == BATCH_SIZE);
+
+        if (purged > 0) {
+            log.info("purged {} expired remember-me tokens", purged);
+        }
+    }
+}
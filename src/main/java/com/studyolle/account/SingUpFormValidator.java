@@ -9,7 +9,7 @@ import org.springframework.validation.Validator;
 @RequiredArgsConstructor
 public class SingUpFormValidator implements Validator {
 
-    private final AccountRepository accountRepository;
+    private final AccountExistenceFilter accountExistenceFilter;
 
     @Override
     public boolean supports(Class<?> clazz) {
@@ -19,11 +19,11 @@ public class SingUpFormValidator implements Validator {
     @Override
     public void validate(Object target, Errors errors) {
         SignUpForm signUpForm = (SignUpForm) target;
-        if(accountRepository.existsByEmail(signUpForm.getEmail())) {
+        if(accountExistenceFilter.existsByEmail(signUpForm.getEmail())) {
             errors.rejectValue("email","invalid.email",new Object[]{signUpForm.getEmail()},"이미 사용중인 이메일 입니다");
         }
 
-        if(accountRepository.existsByNickname(signUpForm.getNickname())) {
+        if(accountExistenceFilter.existsByNickname(signUpForm.getNickname())) {
             errors.rejectValue("nickname","invalid.nickname",new Object[]{signUpForm.getNickname()},"이미 사용중인 닉네임 입니다");
 
         }
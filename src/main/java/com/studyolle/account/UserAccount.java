@@ -1,21 +1,58 @@
 package com.studyolle.account;
 
 import com.studyolle.domain.Account;
-import java.util.Collection;
 import java.util.List;
 import lombok.Getter;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 
-
+/**
+ * 세션의 SecurityContext 에 들어가는 인증 정보.
+ * Account 엔티티 대신 화면에서 자주 쓰는 값만 복사해 둔다. 전체 Account 가 필요하면 @CurrentUser 로 받는다.
+ */
 @Getter
 public class UserAccount extends User {
 
-    private Account account;
+    private final Long id;
+
+    private final String email;
+
+    private final boolean emailVerified;
+
+    private final boolean studyCreatedByWeb;
+
+    private final boolean studyEnrollmentResultByWeb;
+
+    private final boolean studyUpdatedByWeb;
 
     public UserAccount(Account account) {
         super(account.getNickname(), account.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_USER")));
-        this.account = account;
+        this.id = account.getId();
+        this.email = account.getEmail();
+        this.emailVerified = account.isEmailVerified();
+        this.studyCreatedByWeb = account.isStudyCreatedByWeb();
+        this.studyEnrollmentResultByWeb = account.isStudyEnrollmentResultByWeb();
+        this.studyUpdatedByWeb = account.isStudyUpdatedByWeb();
+    }
+
+    private UserAccount(UserAccount source) {
+        super(source.getUsername(), source.getPassword(), source.getAuthorities());
+        this.id = source.id;
+        this.email = source.email;
+        this.emailVerified = source.emailVerified;
+        this.studyCreatedByWeb = source.studyCreatedByWeb;
+        this.studyEnrollmentResultByWeb = source.studyEnrollmentResultByWeb;
+        this.studyUpdatedByWeb = source.studyUpdatedByWeb;
+    }
+
+    /**
+     * 인증이 끝나면 ProviderManager 가 비밀번호를 지우므로, 캐시에 있는 인스턴스 대신 복사본을 넘긴다.
+     */
+    UserAccount copy() {
+        return new UserAccount(this);
+    }
+
+    public String getNickname() {
+        return getUsername();
     }
 }
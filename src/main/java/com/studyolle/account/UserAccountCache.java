@@ -0,0 +1,41 @@
+package com.studyolle.account;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studyolle.config.CacheEviction;
+import com.studyolle.domain.Account;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * 로그인과 remember-me 자동 로그인에서 쓰는 UserDetails 캐시. 키는 이메일 또는 닉네임.
+ */
+@Component
+public class UserAccountCache {
+
+    private final Cache<String, UserAccount> cache = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .recordStats()
+        .build();
+
+    public UserAccount get(String emailOrNickname, Function<String, UserAccount> loader) {
+        UserAccount userAccount = cache.get(emailOrNickname, loader);
+        return userAccount == null ? null : userAccount.copy();
+    }
+
+    public void invalidate(Account account) {
+        List<String> keys = List.of(account.getEmail(), account.getNickname());
+        CacheEviction.evictNowAndAfterCommit(() -> cache.invalidateAll(keys));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+}
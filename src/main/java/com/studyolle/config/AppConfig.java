@@ -1,11 +1,13 @@
 package com.studyolle.config;
 
 
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.NameTokenizers;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -24,4 +26,25 @@ public class AppConfig {
             .setSourceNameTokenizer(NameTokenizers.UNDERSCORE);
         return modelMapper;
     }
+
+    @Bean
+    public ThreadPoolTaskExecutor imageTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100); // 가득 차면 TaskRejectedException
+        executor.setThreadNamePrefix("image-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor mailTaskExecutor(AppProperties appProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(appProperties.getMail().getWorkers());
+        executor.setMaxPoolSize(appProperties.getMail().getWorkers());
+        executor.setQueueCapacity(100);
+        executor.setRejectedExecutionHandler(new CallerRunsPolicy()); // 큐가 차면 호출한 스레드가 직접 보낸다
+        executor.setThreadNamePrefix("mail-");
+        return executor;
+    }
 }
@@ -11,4 +11,51 @@ public class AppProperties {
 
     private String host;
 
+    private String imageDirectory;
+
+    /** 가입 중복 확인용 Bloom filter 를 저장하는 파일. 비워 두면 매번 DB 를 다시 읽는다 */
+    private String accountFilterSnapshot;
+
+    /** 스터디 구성원/관리자 수를 조인 테이블과 맞추는 주기 */
+    private String studyCounterReconcileCron = "0 30 4 * * *";
+
+    private Mail mail = new Mail();
+
+    private Zone zone = new Zone();
+
+    @Data
+    public static class Mail {
+
+        /** outbox 를 확인하는 주기(ms) */
+        private long dispatchInterval = 1000;
+
+        /** 여러 메일을 한 번에 보낼 때 쓰는 스레드 수 */
+        private int workers = 4;
+
+        /** 미리 연결해 두고 재사용하는 SMTP 연결 수 */
+        private int transportPoolSize = 4;
+
+        /** 받는 사람 도메인 하나에 동시에 보내는 메일 수. 초당 발송 수가 아니라 동시에 보내는 수만 제한한다 */
+        private int perDomainConcurrency = 2;
+
+        /** 보낸 메일과 포기한 메일을 outbox 에 남겨 두는 기간(일) */
+        private int retentionDays = 14;
+
+        /** 기간이 지난 outbox 메일을 지우는 주기 */
+        private String purgeCron = "0 0 5 * * *";
+    }
+
+    @Data
+    public static class Zone {
+
+        /** 지역 CSV 를 몇 줄씩 묶어서 저장할지 */
+        private int loadBatchSize = 500;
+
+        /** 지역 데이터가 다 들어올 때까지 조회를 기다리는 최대 시간(ms) */
+        private long readyTimeout = 30000;
+
+        /** false 면 시작할 때 지역 데이터를 다 넣고 나서 다음으로 넘어간다 */
+        private boolean loadAsync = true;
+    }
+
 }
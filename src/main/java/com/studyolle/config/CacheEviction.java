@@ -0,0 +1,30 @@
+package com.studyolle.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DB 를 바꾼 트랜잭션에서 캐시를 지울 때 쓴다.
+ */
+public final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    /**
+     * 바로 지우고, 트랜잭션 안이면 커밋 후에도 한 번 더 지운다.
+     * 커밋 전에 다른 요청이 옛 값을 다시 캐시할 수 있기 때문이다.
+     */
+    public static void evictNowAndAfterCommit(Runnable evict) {
+        evict.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
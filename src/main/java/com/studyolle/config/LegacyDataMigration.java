@@ -0,0 +1,188 @@
+package com.studyolle.config;
+
+import com.studyolle.domain.StudyContent;
+import com.studyolle.image.ImageService;
+import java.sql.Clob;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import javax.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ddl-auto=update 로 스키마만 바뀐 기존 DB 의 데이터를 새 구조로 옮긴다.
+ * 시작할 때마다 돌지만 옮길 것이 없으면 아무것도 하지 않는다. ApplicationReadyEvent 보다 먼저 돈다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LegacyDataMigration implements ApplicationRunner {
+
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ImageService imageService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrateSequences();
+        migrateStudyDescriptions();
+        migrateImages();
+    }
+
+    /**
+     * 예전에는 모든 엔티티가 hibernate_sequence 를 같이 썼다. 엔티티별 시퀀스가 1 부터 시작하면 이미 있는 id 와 겹치므로
+     * 시퀀스의 다음 값이 테이블의 최대 id 보다 크지 않으면 max(id)+1 로 옮긴다.
+     * pooled-lo 최적화라 시퀀스 값이 받아 갈 id 묶음의 첫 값이다. 확인하느라 묶음 하나를 건너뛴다.
+     */
+    public int migrateSequences() {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+
+        int moved = 0;
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (!(persister.getIdentifierGenerator() instanceof SequenceStyleGenerator)
+                || !(persister instanceof AbstractEntityPersister)) {
+                continue;
+            }
+            String sequence = ((SequenceStyleGenerator) persister.getIdentifierGenerator())
+                .getDatabaseStructure().getName();
+            AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+            Long maxId = jdbcTemplate.queryForObject("select max(" + entityPersister.getIdentifierColumnNames()[0]
+                + ") from " + entityPersister.getTableName(), Long.class);
+            if (maxId == null) {
+                continue;
+            }
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+            if (next != null && next <= maxId) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+                log.info("moved sequence {} from {} to {}", sequence, next, maxId + 1);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * 예전 study.full_description 을 study_content 로 옮기고 옛 컬럼은 비운다. 옛 컬럼이 없는 새 DB 에서는 건너뛴다.
+     */
+    public int migrateStudyDescriptions() {
+        if (!columnExists("study", "full_description")) {
+            return 0;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        int batchSize;
+        do {
+            // large object 를 읽을 수 있도록 읽기부터 트랜잭션 안에서 한다
+            batchSize = transactionTemplate.execute(status -> {
+                List<Object[]> rows = jdbcTemplate.query("select id, full_description from study"
+                        + " where content_id is null and full_description is not null limit " + BATCH_SIZE,
+                    (rs, rowNum) -> new Object[]{rs.getLong("id"), readLob(rs, "full_description")});
+                rows.forEach(row -> {
+                    StudyContent content = new StudyContent();
+                    content.setFullDescription((String) row[1]);
+                    entityManager.persist(content);
+                    entityManager.flush();
+                    jdbcTemplate.update("update study set content_id = ?, full_description = null where id = ?",
+                        content.getId(), row[0]);
+                });
+                return rows.size();
+            });
+            migrated += batchSize;
+        } while (batchSize == BATCH_SIZE);
+
+        if (migrated > 0) {
+            log.info("moved {} study descriptions into study_content", migrated);
+        }
+        return migrated;
+    }
+
+    /**
+     * 예전 account.profile_image 와 study.image 의 data URL 을 이미지 저장소로 옮기고 해시 컬럼을 채운 뒤 옛 컬럼을 지운다.
+     * 형식이 잘못된 값은 옮길 수 없으므로 경고만 남기고 버린다.
+     */
+    public int migrateImages() {
+        return migrateImageColumn("account", "profile_image", "profile_image_hash")
+            + migrateImageColumn("study", "image", "image_hash");
+    }
+
+    private int migrateImageColumn(String table, String dataUrlColumn, String hashColumn) {
+        if (!columnExists(table, dataUrlColumn)) {
+            return 0;
+        }
+
+        // Postgres 의 large object 는 트랜잭션 안에서만 읽을 수 있어서 읽기부터 한 트랜잭션으로 묶는다
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        int[] batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Object[]> rows = jdbcTemplate.query("select id, " + dataUrlColumn + " from " + table
+                        + " where " + dataUrlColumn + " is not null limit " + BATCH_SIZE,
+                    (rs, rowNum) -> new Object[]{rs.getLong("id"), readLob(rs, dataUrlColumn)});
+                int stored = 0;
+                for (Object[] row : rows) {
+                    String dataUrl = (String) row[1];
+                    String hash = null;
+                    try {
+                        hash = dataUrl == null || dataUrl.isEmpty() ? null : imageService.storeDataUrl(dataUrl);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("dropping malformed image in {}.{} of id {}: {}", table, dataUrlColumn, row[0], e.getMessage());
+                    }
+                    jdbcTemplate.update("update " + table + " set " + hashColumn + " = coalesce(?, " + hashColumn + "), "
+                        + dataUrlColumn + " = null where id = ?", hash, row[0]);
+                    stored += hash == null ? 0 : 1;
+                }
+                return new int[]{rows.size(), stored};
+            });
+            migrated += batch[1];
+        } while (batch[0] == BATCH_SIZE);
+
+        jdbcTemplate.execute("alter table " + table + " drop column " + dataUrlColumn);
+        log.info("moved {} images from {}.{} into the image store", migrated, table, dataUrlColumn);
+        return migrated;
+    }
+
+    // Postgres 에서 Hibernate 는 @Lob 문자열을 large object 로 두고 컬럼에는 OID 만 남긴다. H2 는 clob 이다.
+    private static String readLob(ResultSet rs, String column) throws SQLException {
+        try {
+            Clob clob = rs.getClob(column);
+            return clob == null ? null : clob.getSubString(1, (int) clob.length());
+        } catch (SQLException e) {
+            return rs.getString(column); // 일반 문자열 컬럼
+        }
+    }
+
+    // Postgres 는 소문자, H2 는 대문자로 이름을 돌려준다
+    private boolean columnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return hasColumn(metaData, table, column) || hasColumn(metaData, table.toUpperCase(), column.toUpperCase());
+        }));
+    }
+
+    private boolean hasColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.studyolle.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * app.scheduling.enabled=false 로 @Scheduled 작업을 모두 끌 수 있다. 테스트에서 다른 스레드의 쿼리가 끼어들지 않게 할 때 쓴다.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.scheduling", name = "enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -17,7 +17,9 @@ import lombok.*;
 @NoArgsConstructor
 public class Account {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
@@ -44,8 +46,8 @@ public class Account {
 
     private String location;
 
-    @Lob @Basic(fetch = FetchType.EAGER)
-    private String profileImage;
+    @Column(length = 64)
+    private String profileImageHash;
 
     private boolean studyCreatedByEmail;
 
@@ -82,8 +84,4 @@ public class Account {
     public boolean isValidToken(String token) {
         return this.emailCheckToken.equals(token);
     }
-
-    public boolean isManagerOf(Study study) {
-        return study.getManagers().contains(this);
-    }
 }
@@ -0,0 +1,75 @@
+package com.studyolle.domain;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import javax.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(indexes = {@Index(columnList = "status, nextAttemptAt"), @Index(columnList = "status, createdAt")})
+@Getter @Setter @EqualsAndHashCode(of = "id")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_email_seq")
+    @SequenceGenerator(name = "outbox_email_seq", sequenceName = "outbox_email_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Lob
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public enum Status {
+        PENDING, SENT, DEAD
+    }
+
+    /**
+     * 보내는 동안 다른 서버가 가져가지 않도록 until 까지 미뤄 둔다. 결과를 기록하지 못하고 죽으면 until 뒤에 다시 보낸다.
+     */
+    public void lease(LocalDateTime until) {
+        this.nextAttemptAt = until;
+    }
+
+    public boolean isLeasedUntil(LocalDateTime until) {
+        return this.status == Status.PENDING && until.equals(this.nextAttemptAt);
+    }
+
+    public void markSent(LocalDateTime now) {
+        this.status = Status.SENT;
+        this.sentAt = now;
+        this.attempts++;
+    }
+
+    /**
+     * 실패하면 baseBackoff * 2^(시도 횟수-1) 뒤에 다시 보내고, maxAttempts 번 실패하면 더 보내지 않는다.
+     */
+    public void markFailed(String error, LocalDateTime now, int maxAttempts, Duration baseBackoff) {
+        this.attempts++;
+        this.lastError = error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+        if (this.attempts >= maxAttempts) {
+            this.status = Status.DEAD;
+            return;
+        }
+        this.nextAttemptAt = now.plus(baseBackoff.multipliedBy(1L << (this.attempts - 1)));
+    }
+}
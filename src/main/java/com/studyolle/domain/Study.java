@@ -1,6 +1,5 @@
 package com.studyolle.domain;
 
-import com.studyolle.account.UserAccount;
 import lombok.*;
 
 import javax.persistence.*;
@@ -8,26 +7,20 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
-@NamedEntityGraph(name = "Study.withAll", attributeNodes = {
-    @NamedAttributeNode("tags"),
-    @NamedAttributeNode("zones"),
-    @NamedAttributeNode("managers"),
-    @NamedAttributeNode("members")})
-@NamedEntityGraph(name = "Study.withTagsAndManagers", attributeNodes = {
-    @NamedAttributeNode("tags"),
-    @NamedAttributeNode("managers")})
-@NamedEntityGraph(name = "Study.withZonesAndManagers", attributeNodes = {
-    @NamedAttributeNode("zones"),
-    @NamedAttributeNode("managers")})
 @Entity
 @Getter @Setter @EqualsAndHashCode(of = "id")
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Study {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "study_seq")
+    @SequenceGenerator(name = "study_seq", sequenceName = "study_seq", allocationSize = 50)
     private Long id;
 
+    // 계정이 관리하는 스터디를 찾을 때 쓰는 인덱스. 기본 키는 study_id 가 앞에 온다.
     @ManyToMany
+    @JoinTable(name = "study_managers",
+        indexes = @Index(name = "idx_study_managers_manager", columnList = "managers_id, study_id"))
     private Set<Account> managers = new HashSet<>();
 
     @ManyToMany
@@ -40,11 +33,12 @@ public class Study {
 
     private String shortDescription;
 
-    @Lob @Basic(fetch = FetchType.EAGER)
-    private String fullDescription;
+    // 큰 본문은 스터디 소개 화면에서만 읽도록 별도 테이블로 분리
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private StudyContent content;
 
-    @Lob @Basic(fetch = FetchType.EAGER)
-    private String image;
+    @Column(length = 64)
+    private String imageHash;
 
     @ManyToMany
     private Set<Tag> tags = new HashSet<>();
@@ -66,26 +60,29 @@ public class Study {
 
     private boolean useBanner;
 
-    public void addManager(Account account) {
-        this.managers.add(account);
-    }
+    // 목록과 카드에서 컬렉션을 읽지 않고 보여 주는 인원 수. 가입/탈퇴는 StudyRepository 의 조건부 UPDATE 로 바꾼다.
+    // 기존 DB 에 컬럼이 더해질 때 null 이 들어가지 않도록 기본값을 준다.
+    @Column(columnDefinition = "integer default 0")
+    private int memberCount;
 
-    public boolean isJoinable(UserAccount userAccount) {
-        Account account = userAccount.getAccount();
-        return this.isPublished() && this.isRecruiting()
-            && !this.members.contains(account) && !this.managers.contains(account);
+    @Column(columnDefinition = "integer default 0")
+    private int managerCount;
 
+    public String getFullDescription() {
+        return this.content == null ? null : this.content.getFullDescription();
     }
 
-    public boolean isMember(UserAccount userAccount) {
-        return this.members.contains(userAccount.getAccount());
+    public void setFullDescription(String fullDescription) {
+        if (this.content == null) {
+            this.content = new StudyContent();
+        }
+        this.content.setFullDescription(fullDescription);
     }
 
-    public boolean isManager(UserAccount userAccount) {
-        return this.managers.contains(userAccount.getAccount());
-    }
-
-    public boolean isManagedBy(Account account) {
-        return this.getManagers().contains(account);
+    // 새로 만드는 스터디에서만 쓴다. 이미 있는 스터디는 StudyRepository.addManager 로 바꾼다.
+    public void addManager(Account account) {
+        if (this.managers.add(account)) {
+            this.managerCount++;
+        }
     }
 }
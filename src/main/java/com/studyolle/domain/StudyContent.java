@@ -0,0 +1,24 @@
+package com.studyolle.domain;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Lob;
+import lombok.*;
+
+@Entity
+@Getter @Setter @EqualsAndHashCode(of = "id")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class StudyContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "study_content_seq")
+    @SequenceGenerator(name = "study_content_seq", sequenceName = "study_content_seq", allocationSize = 50)
+    private Long id;
+
+    @Lob
+    private String fullDescription;
+
+}
@@ -0,0 +1,51 @@
+package com.studyolle.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Study.members 의 조인 테이블을 읽기 전용으로 한 번 더 매핑한다.
+ * 가입 순서대로 구성원을 나눠 읽을 수 있도록 joined_at 컬럼과 인덱스를 더한다. 행은 Study.members 와 StudyRepository 가 넣고 지운다.
+ */
+@Entity
+@Immutable
+@Getter
+@IdClass(StudyMember.Key.class)
+@Table(name = "study_members",
+    indexes = {@Index(name = "idx_study_members_joined", columnList = "study_id, joined_at, members_id"),
+        @Index(name = "idx_study_members_member", columnList = "members_id, study_id")})
+public class StudyMember {
+
+    @Id
+    @Column(name = "study_id")
+    private Long studyId;
+
+    @Id
+    @Column(name = "members_id")
+    private Long memberId;
+
+    @Column(name = "joined_at", insertable = false, updatable = false,
+        columnDefinition = "timestamp default current_timestamp")
+    private LocalDateTime joinedAt;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long studyId;
+
+        private Long memberId;
+    }
+}
@@ -4,7 +4,9 @@ package com.studyolle.domain;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import lombok.*;
 
 @Entity
@@ -12,7 +14,9 @@ import lombok.*;
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Tag {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tag_seq")
+    @SequenceGenerator(name = "tag_seq", sequenceName = "tag_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -3,7 +3,9 @@ package com.studyolle.domain;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.websocket.server.ServerEndpoint;
 import lombok.*;
 
@@ -14,7 +16,9 @@ import lombok.*;
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Zone {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "zone_seq")
+    @SequenceGenerator(name = "zone_seq", sequenceName = "zone_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,6 +30,14 @@ public class Zone {
     @Column(nullable = true)
     private String province;
 
+    private Double latitude;
+
+    private Double longitude;
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+
     @Override
     public String toString() {
         return String.format("%s(%s)/%s",city,localNameOfCity,province);
@@ -0,0 +1,84 @@
+package com.studyolle.image;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
+
+@Controller
+@RequiredArgsConstructor
+public class ImageController {
+
+    // Spring 5.3 의 CacheControl 은 immutable 지시자를 지원하지 않는다
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final ImageStore imageStore;
+    private final ThumbnailService thumbnailService;
+
+    // 정적 리소스(/images/logo_sm.png)와 겹치지 않도록 해시 형태만 매핑한다
+    @GetMapping("/images/{hash:[0-9a-f]{64}}")
+    public ResponseEntity<byte[]> image(@PathVariable String hash, WebRequest request) {
+        // 내용 주소 방식이라 해시가 같으면 내용도 같다
+        if (request.checkNotModified(hash)) {
+            return null;
+        }
+
+        return imageStore.load(hash)
+            .map(bytes -> ResponseEntity.ok()
+                .contentType(contentTypeOf(bytes))
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+                .eTag(hash)
+                .body(bytes))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/images/{hash:[0-9a-f]{64}}/{size:[0-9]+}")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable String hash, @PathVariable int size, WebRequest request) {
+        if (!ThumbnailService.SIZES.contains(size)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String key = ThumbnailService.variantKey(hash, size);
+        if (request.checkNotModified(key)) {
+            return null;
+        }
+
+        Optional<byte[]> thumbnail = imageStore.load(key);
+        if (thumbnail.isPresent()) {
+            return ResponseEntity.ok()
+                .contentType(contentTypeOf(thumbnail.get()))
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+                .eTag(key)
+                .body(thumbnail.get());
+        }
+
+        // 아직 썸네일이 없으면 원본을 캐시 없이 내려주고 다시 만들도록 한다
+        return imageStore.load(hash)
+            .map(bytes -> {
+                thumbnailService.generateAsync(hash);
+                return ResponseEntity.ok()
+                    .contentType(contentTypeOf(bytes))
+                    .cacheControl(CacheControl.noCache())
+                    .body(bytes);
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private MediaType contentTypeOf(byte[] bytes) {
+        try {
+            String type = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(bytes));
+            return type == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(type);
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
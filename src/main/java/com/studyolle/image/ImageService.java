@@ -0,0 +1,53 @@
+package com.studyolle.image;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class ImageService {
+
+    private static final Set<String> ALLOWED_TYPES = Set.of("image/png", "image/jpeg", "image/gif");
+
+    private final ImageStore imageStore;
+    private final ThumbnailService thumbnailService;
+
+    /**
+     * 크롭 스크립트가 보내는 data URL(data:image/png;base64,...)을 저장하고 내용 해시를 돌려준다.
+     */
+    public String storeDataUrl(String dataUrl) {
+        int comma = dataUrl.indexOf(',');
+        if (!dataUrl.startsWith("data:") || comma < 0 || !dataUrl.substring(0, comma).endsWith(";base64")) {
+            throw new IllegalArgumentException("이미지 형식이 올바르지 않습니다");
+        }
+
+        String contentType = dataUrl.substring("data:".length(), comma - ";base64".length());
+        if (!ALLOWED_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException(contentType + " 형식의 이미지는 사용할 수 없습니다");
+        }
+
+        byte[] bytes = Base64.getDecoder().decode(dataUrl.substring(comma + 1).getBytes(StandardCharsets.US_ASCII));
+        String hash = hash(bytes);
+        imageStore.save(hash, bytes);
+        thumbnailService.generateAsync(hash);
+        return hash;
+    }
+
+    static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.studyolle.image;
+
+import java.util.Optional;
+
+/**
+ * 이미지 바이트를 내용 해시(SHA-256) 키로 저장하는 저장소.
+ * 같은 내용은 같은 키를 가지므로 save 는 멱등이다.
+ */
+public interface ImageStore {
+
+    void save(String key, byte[] bytes);
+
+    Optional<byte[]> load(String key);
+
+    boolean contains(String key);
+}
@@ -0,0 +1,71 @@
+package com.studyolle.image;
+
+import com.studyolle.config.AppProperties;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LocalImageStore implements ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(-[0-9]+)?");
+
+    private final Path root;
+
+    public LocalImageStore(AppProperties appProperties) {
+        this.root = Paths.get(appProperties.getImageDirectory()).toAbsolutePath();
+    }
+
+    @Override
+    public void save(String key, byte[] bytes) {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return; // 같은 해시면 같은 내용
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("failed to save image {}", key, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> load(String key) {
+        Path target = resolve(key);
+        if (!Files.exists(target)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Files.readAllBytes(target));
+        } catch (IOException e) {
+            log.error("failed to load image {}", key, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException(key + "는 올바른 이미지 키가 아닙니다");
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
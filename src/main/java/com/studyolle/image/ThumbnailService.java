@@ -0,0 +1,121 @@
+package com.studyolle.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    /** 화면에서 쓰는 폭(px). 네비게이션 아바타, 멤버 목록, 프로필, 배너 */
+    public static final List<Integer> SIZES = List.of(32, 64, 125, 640);
+
+    private final ImageStore imageStore;
+    private final TaskExecutor imageTaskExecutor;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    public ThumbnailService(ImageStore imageStore, @Qualifier("imageTaskExecutor") TaskExecutor imageTaskExecutor) {
+        this.imageStore = imageStore;
+        this.imageTaskExecutor = imageTaskExecutor;
+    }
+
+    public static String variantKey(String hash, int size) {
+        return hash + "-" + size;
+    }
+
+    /**
+     * 모든 크기의 썸네일을 백그라운드에서 만든다. 큐가 가득 차면 버리고,
+     * 이미지를 요청할 때 없는 썸네일을 다시 요청한다.
+     */
+    public void generateAsync(String hash) {
+        if (!inProgress.add(hash)) {
+            return;
+        }
+
+        try {
+            imageTaskExecutor.execute(() -> {
+                try {
+                    generate(hash);
+                } finally {
+                    inProgress.remove(hash);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inProgress.remove(hash);
+            log.warn("thumbnail queue is full, skipped {}", hash);
+        }
+    }
+
+    public void generate(String hash) {
+        Optional<byte[]> original = imageStore.load(hash);
+        if (original.isEmpty()) {
+            return;
+        }
+
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(original.get()));
+            if (source == null) {
+                log.warn("unreadable image {}", hash);
+                return;
+            }
+
+            String format = isJpeg(original.get()) ? "jpg" : "png";
+            for (int size : SIZES) {
+                String key = variantKey(hash, size);
+                if (imageStore.contains(key)) {
+                    continue;
+                }
+
+                // 원본보다 크게 늘리지 않는다
+                byte[] bytes = source.getWidth() <= size ? original.get() : encode(resize(source, size), format);
+                imageStore.save(key, bytes);
+            }
+        } catch (IOException e) {
+            log.error("failed to generate thumbnails for {}", hash, e);
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int type = source.getTransparency() == BufferedImage.OPAQUE
+            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        // 한 번에 크게 줄이면 품질이 나빠서 절반씩 줄인다
+        do {
+            int w = Math.max(width, current.getWidth() / 2);
+            int h = Math.max(1, Math.round((float) current.getHeight() * w / current.getWidth()));
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (current.getWidth() > width);
+
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private boolean isJpeg(byte[] bytes) {
+        return bytes.length > 2 && (bytes[0] & 0xff) == 0xff && (bytes[1] & 0xff) == 0xd8;
+    }
+}
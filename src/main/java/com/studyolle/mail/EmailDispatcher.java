@@ -0,0 +1,213 @@
+package com.studyolle.mail;
+
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.OutboxEmail;
+import com.studyolle.domain.OutboxEmail.Status;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+public class EmailDispatcher {
+
+    static final int BATCH_SIZE = 50;
+    static final int MAX_ATTEMPTS = 5;
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    static final Duration LEASE = Duration.ofMinutes(5);
+    static final int PURGE_BATCH_SIZE = 500;
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalSendNanos = new AtomicLong();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+
+    public EmailDispatcher(OutboxEmailRepository outboxEmailRepository, EmailService emailService,
+        PlatformTransactionManager transactionManager, AppProperties appProperties) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.appProperties = appProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.dispatch-interval:1000}",
+        initialDelayString = "${app.mail.dispatch-interval:1000}")
+    public void dispatchScheduled() {
+        int dispatched;
+        do {
+            dispatched = dispatch();
+        } while (dispatched == BATCH_SIZE);
+    }
+
+    /**
+     * 보낼 때가 된 메일을 한 묶음 보내고 처리한 개수를 돌려준다.
+     * 고르기와 결과 기록은 각각 짧은 트랜잭션이고, SMTP 로 보내는 동안에는 락도 DB 연결도 잡고 있지 않다.
+     */
+    public int dispatch() {
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(LEASE).truncatedTo(ChronoUnit.MILLIS);
+        List<OutboxEmail> batch = claim(leaseUntil);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // 내용이 같은 메일도 따로 기록하도록 메일 객체 자체로 outbox id 를 찾는다
+        List<EmailMessage> messages = new ArrayList<>();
+        Map<EmailMessage, Long> outboxIds = new IdentityHashMap<>();
+        for (OutboxEmail outboxEmail : batch) {
+            EmailMessage message = toMessage(outboxEmail);
+            messages.add(message);
+            outboxIds.put(message, outboxEmail.getId());
+        }
+        Map<Long, Exception> failures = new HashMap<>();
+        send(messages)
+            .forEach((message, failure) -> failures.put(outboxIds.get(message), failure));
+        record(batch, failures, leaseUntil);
+        return batch.size();
+    }
+
+    /**
+     * 만든 지 retentionDays 가 지난 보낸 메일과 포기한 메일을 나눠서 지운다.
+     */
+    @Scheduled(cron = "${app.mail.purge-cron:0 0 5 * * *}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusDays(appProperties.getMail().getRetentionDays());
+        int purged = purge(Status.SENT, before) + purge(Status.DEAD, before);
+        if (purged > 0) {
+            log.info("purged {} emails from the outbox", purged);
+        }
+    }
+
+    private int purge(Status status, LocalDateTime before) {
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = outboxEmailRepository.findIdsByStatusAndCreatedAtBefore(status, before,
+                PageRequest.of(0, PURGE_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                purged += outboxEmailRepository.deleteByIdIn(ids);
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+        return purged;
+    }
+
+    private List<OutboxEmail> claim(LocalDateTime leaseUntil) {
+        List<OutboxEmail> batch = transactionTemplate.execute(status -> {
+            List<OutboxEmail> due = outboxEmailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderById(
+                Status.PENDING, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            due.forEach(outboxEmail -> outboxEmail.lease(leaseUntil));
+            return due;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private Map<Object, Exception> send(List<EmailMessage> messages) {
+        long start = System.nanoTime();
+        try {
+            emailService.sendEmails(messages);
+            return Map.of();
+        } catch (MailSendException e) {
+            return e.getFailedMessages();
+        } catch (RuntimeException e) {
+            Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+            messages.forEach(message -> failedMessages.put(message, e));
+            return failedMessages;
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void record(List<OutboxEmail> batch, Map<Long, Exception> failures, LocalDateTime leaseUntil) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, OutboxEmail> current = outboxEmailRepository.findAllById(
+                    batch.stream().map(OutboxEmail::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(OutboxEmail::getId, Function.identity()));
+            for (OutboxEmail claimed : batch) {
+                OutboxEmail outboxEmail = current.get(claimed.getId());
+                if (outboxEmail == null || !outboxEmail.isLeasedUntil(leaseUntil)) {
+                    log.warn("lease on email {} expired before the result was recorded", claimed.getId());
+                    continue;
+                }
+                Exception failure = failures.get(claimed.getId());
+                if (failure == null) {
+                    outboxEmail.markSent(now);
+                    sentCount.incrementAndGet();
+                } else {
+                    markFailed(outboxEmail, failure, now);
+                }
+            }
+        });
+    }
+
+    private void markFailed(OutboxEmail outboxEmail, Exception failure, LocalDateTime now) {
+        outboxEmail.markFailed(failure.getMessage(), now, MAX_ATTEMPTS, BASE_BACKOFF);
+        failedCount.incrementAndGet();
+        if (outboxEmail.getStatus() == Status.DEAD) {
+            log.error("gave up sending email {} to {}", outboxEmail.getId(), outboxEmail.getRecipient(), failure);
+        } else {
+            log.warn("failed to send email {}, retry at {}", outboxEmail.getId(), outboxEmail.getNextAttemptAt());
+        }
+    }
+
+    private EmailMessage toMessage(OutboxEmail outboxEmail) {
+        return EmailMessage.builder()
+            .to(outboxEmail.getRecipient())
+            .subject(outboxEmail.getSubject())
+            .message(outboxEmail.getMessage())
+            .build();
+    }
+
+    private void recordLatency(long nanos) {
+        batchCount.incrementAndGet();
+        totalSendNanos.addAndGet(nanos);
+        maxSendNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getQueueDepth() {
+        return outboxEmailRepository.countByStatus(Status.PENDING);
+    }
+
+    public long getDeadLetterCount() {
+        return outboxEmailRepository.countByStatus(Status.DEAD);
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /** 한 묶음을 보내는 데 걸린 평균 시간 */
+    public double getAverageBatchMillis() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(totalSendNanos.get()) / batches / 1000;
+    }
+
+    public long getMaxBatchMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxSendNanos.get());
+    }
+}
@@ -0,0 +1,32 @@
+package com.studyolle.mail;
+
+import com.studyolle.domain.OutboxEmail;
+import com.studyolle.domain.OutboxEmail.Status;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 메일을 바로 보내지 않고 호출한 쪽의 트랜잭션 안에서 outbox 테이블에 저장한다.
+ * 실제 발송은 {@link EmailDispatcher} 가 한다.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    public OutboxEmail enqueue(EmailMessage emailMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEmailRepository.save(OutboxEmail.builder()
+            .recipient(emailMessage.getTo())
+            .subject(emailMessage.getSubject())
+            .message(emailMessage.getMessage())
+            .status(Status.PENDING)
+            .createdAt(now)
+            .nextAttemptAt(now)
+            .build());
+    }
+}
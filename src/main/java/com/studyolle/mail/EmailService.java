@@ -1,7 +1,30 @@
 package com.studyolle.mail;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.mail.MailSendException;
+
 public interface EmailService {
 
     void sendEmail(EmailMessage emailMessage);
 
+    /**
+     * 하나가 실패해도 나머지를 다 보내고, 실패한 메일은 {@link MailSendException#getFailedMessages()} 로 모아서 알린다.
+     * 내용이 같은 메일이 여럿이어도 구분되도록 실패 목록은 넘겨받은 객체 자체를 키로 쓴다.
+     */
+    default void sendEmails(List<EmailMessage> emailMessages) {
+        Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+        for (EmailMessage emailMessage : emailMessages) {
+            try {
+                sendEmail(emailMessage);
+            } catch (RuntimeException e) {
+                failedMessages.put(emailMessage, e);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
 }
@@ -1,10 +1,21 @@
 package com.studyolle.mail;
 
+import com.studyolle.config.AppProperties;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import javax.mail.MessagingException;
+import javax.mail.Transport;
 import javax.mail.internet.MimeMessage;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
@@ -12,24 +23,90 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Profile("dev")
 @Component
-@RequiredArgsConstructor
 public class HtmlEmailService implements EmailService{
 
     private final JavaMailSender javaMailSender;
+    private final SmtpTransportPool transportPool;
+    private final TaskExecutor mailTaskExecutor;
+    private final int perDomainConcurrency;
+    private final Map<String, Semaphore> domainPermits = new ConcurrentHashMap<>();
+
+    public HtmlEmailService(JavaMailSender javaMailSender, SmtpTransportPool transportPool,
+        @Qualifier("mailTaskExecutor") TaskExecutor mailTaskExecutor, AppProperties appProperties) {
+        this.javaMailSender = javaMailSender;
+        this.transportPool = transportPool;
+        this.mailTaskExecutor = mailTaskExecutor;
+        this.perDomainConcurrency = appProperties.getMail().getPerDomainConcurrency();
+    }
 
     @Override
     public void sendEmail(EmailMessage emailMessage) {
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
         try {
-            MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, false,"UTF-8");
-            mimeMessageHelper.setTo(emailMessage.getTo());
-            mimeMessageHelper.setSubject(emailMessage.getSubject());
-            mimeMessageHelper.setText(emailMessage.getMessage(),true);
-            javaMailSender.send(mimeMessage);
+            send(createMimeMessage(emailMessage));
             log.info("sent email : {}", emailMessage.getMessage());
         } catch (MessagingException e) {
             log.error("failed to send mail" , e);
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * 여러 스레드로 나눠 보내되 받는 사람 도메인마다 동시에 보내는 수를 제한한다. 초당 발송 수를 제한하지는 않는다.
+     * 실패한 메일이 있으면 나머지를 다 보낸 뒤 {@link MailSendException} 으로 모아서 알린다.
+     */
+    @Override
+    public void sendEmails(List<EmailMessage> emailMessages) {
+        Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+        CompletableFuture<?>[] futures = emailMessages.stream()
+            .map(emailMessage -> CompletableFuture.runAsync(() -> sendWithinDomainLimit(emailMessage), mailTaskExecutor)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        synchronized (failedMessages) {
+                            failedMessages.put(emailMessage, (Exception) (e.getCause() != null ? e.getCause() : e));
+                        }
+                    }
+                }))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private void sendWithinDomainLimit(EmailMessage emailMessage) {
+        Semaphore permit = domainPermits.computeIfAbsent(domainOf(emailMessage.getTo()),
+            domain -> new Semaphore(perDomainConcurrency));
+        permit.acquireUninterruptibly();
+        try {
+            sendEmail(emailMessage);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private MimeMessage createMimeMessage(EmailMessage emailMessage) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, false,"UTF-8");
+        mimeMessageHelper.setTo(emailMessage.getTo());
+        mimeMessageHelper.setSubject(emailMessage.getSubject());
+        mimeMessageHelper.setText(emailMessage.getMessage(),true);
+        mimeMessage.saveChanges();
+        return mimeMessage;
+    }
+
+    private void send(MimeMessage mimeMessage) throws MessagingException {
+        Transport transport = transportPool.borrow();
+        boolean reusable = false;
+        try {
+            transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            reusable = true;
+        } finally {
+            transportPool.release(transport, reusable);
+        }
+    }
+
+    private static String domainOf(String email) {
+        return email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,101 @@
+package com.studyolle.mail;
+
+import com.studyolle.config.AppProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+/**
+ * mail/simple-link 템플릿을 문구(linkName, message)마다 한 번만 Thymeleaf 로 렌더링해 뼈대를 만들어 두고,
+ * 메일마다 바뀌는 nickname 과 link 만 HTML 이스케이프해서 끼워 넣는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class LinkMailRenderer {
+
+    static final String TEMPLATE = "mail/simple-link";
+
+    // 이스케이프해도 바뀌지 않고 템플릿에 나올 일이 없는 표식
+    private static final String NICKNAME = "__studyolle_nickname__";
+    private static final String LINK = "__studyolle_link__";
+
+    private final TemplateEngine templateEngine;
+    private final AppProperties appProperties;
+    private final Map<Variant, Skeleton> skeletons = new ConcurrentHashMap<>();
+
+    public String render(String linkName, String message, String nickname, String link) {
+        return skeletons.computeIfAbsent(new Variant(linkName, message), this::compile)
+            .fill(HtmlUtils.htmlEscape(nickname, "UTF-8"), HtmlUtils.htmlEscape(link, "UTF-8"));
+    }
+
+    private Skeleton compile(Variant variant) {
+        Context context = new Context();
+        context.setVariable("link", LINK);
+        context.setVariable("nickname", NICKNAME);
+        context.setVariable("linkName", variant.getLinkName());
+        context.setVariable("message", variant.getMessage());
+        context.setVariable("host", appProperties.getHost());
+        return Skeleton.parse(templateEngine.process(TEMPLATE, context));
+    }
+
+    @Value
+    private static class Variant {
+        String linkName;
+        String message;
+    }
+
+    /**
+     * 고정된 문자열 조각 사이사이에 nickname 이나 link 가 들어간다. literals 는 slots 보다 항상 하나 많다.
+     */
+    private static class Skeleton {
+
+        private final String[] literals;
+        private final boolean[] nicknameSlots;
+        private final int literalLength;
+
+        private Skeleton(List<String> literals, List<Boolean> nicknameSlots) {
+            this.literals = literals.toArray(new String[0]);
+            this.nicknameSlots = new boolean[nicknameSlots.size()];
+            for (int i = 0; i < this.nicknameSlots.length; i++) {
+                this.nicknameSlots[i] = nicknameSlots.get(i);
+            }
+            this.literalLength = literals.stream().mapToInt(String::length).sum();
+        }
+
+        static Skeleton parse(String rendered) {
+            List<String> literals = new ArrayList<>();
+            List<Boolean> nicknameSlots = new ArrayList<>();
+            int from = 0;
+            while (true) {
+                int nickname = rendered.indexOf(NICKNAME, from);
+                int link = rendered.indexOf(LINK, from);
+                if (nickname < 0 && link < 0) {
+                    break;
+                }
+                boolean isNickname = link < 0 || (nickname >= 0 && nickname < link);
+                int at = isNickname ? nickname : link;
+                literals.add(rendered.substring(from, at));
+                nicknameSlots.add(isNickname);
+                from = at + (isNickname ? NICKNAME : LINK).length();
+            }
+            literals.add(rendered.substring(from));
+            return new Skeleton(literals, nicknameSlots);
+        }
+
+        String fill(String nickname, String link) {
+            StringBuilder sb = new StringBuilder(
+                literalLength + nicknameSlots.length * Math.max(nickname.length(), link.length()));
+            for (int i = 0; i < nicknameSlots.length; i++) {
+                sb.append(literals[i]).append(nicknameSlots[i] ? nickname : link);
+            }
+            return sb.append(literals[literals.length - 1]).toString();
+        }
+    }
+}
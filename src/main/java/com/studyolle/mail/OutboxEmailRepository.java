@@ -0,0 +1,37 @@
+package com.studyolle.mail;
+
+import com.studyolle.domain.OutboxEmail;
+import com.studyolle.domain.OutboxEmail.Status;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // -2 = SKIP LOCKED. 서버가 여러 대여도 같은 메일을 두 번 보내지 않는다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    List<OutboxEmail> findByStatusAndNextAttemptAtLessThanEqualOrderById(Status status, LocalDateTime now,
+        Pageable pageable);
+
+    long countByStatus(Status status);
+
+    @Query("select o.id from OutboxEmail o where o.status = :status and o.createdAt < :before order by o.id")
+    List<Long> findIdsByStatusAndCreatedAtBefore(@Param("status") Status status,
+        @Param("before") LocalDateTime before, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEmail o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,84 @@
+package com.studyolle.mail;
+
+import com.studyolle.config.AppProperties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * 연결된 SMTP {@link Transport} 를 재사용한다. 메일마다 연결과 TLS, 인증을 반복하지 않는다.
+ */
+@Slf4j
+@Profile("dev")
+@Component
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<Transport> idle;
+    private final Semaphore permits;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, AppProperties appProperties) {
+        int size = appProperties.getMail().getTransportPoolSize();
+        this.mailSender = mailSender;
+        this.idle = new LinkedBlockingQueue<>(size);
+        this.permits = new Semaphore(size);
+    }
+
+    public Transport borrow() throws MessagingException {
+        permits.acquireUninterruptibly();
+        Transport transport = idle.poll();
+        try {
+            if (transport == null || !transport.isConnected()) {
+                closeQuietly(transport);
+                transport = connect();
+            }
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 보내다 실패한 연결은 상태를 알 수 없으니 돌려놓지 않고 닫는다.
+     */
+    public void release(Transport transport, boolean reusable) {
+        if (!reusable || !idle.offer(transport)) {
+            closeQuietly(transport);
+        }
+        permits.release();
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+            mailSender.getPassword());
+        return transport;
+    }
+
+    @PreDestroy
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private void closeQuietly(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("failed to close smtp transport", e);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.studyolle.settings;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyolle.account.AccountService;
 import com.studyolle.account.CurrentUser;
 import com.studyolle.domain.Account;
@@ -10,10 +8,11 @@ import com.studyolle.domain.Zone;
 import com.studyolle.settings.form.*;
 import com.studyolle.settings.validator.NicknameValidator;
 import com.studyolle.settings.validator.PasswordFormValidator;
-import com.studyolle.tag.TagRepository;
 import com.studyolle.tag.TagService;
-import com.studyolle.zone.ZoneRepository;
+import com.studyolle.zone.ZoneRegistry;
+import com.studyolle.zone.ZoneService;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -52,10 +51,9 @@ public class SettingsController {
     private final AccountService accountService;
     private final ModelMapper modelMapper;
     private final NicknameValidator nicknameValidator;
-    private final TagRepository tagRepository;
-    private final ObjectMapper objectMapper;
-    private final ZoneRepository zoneRepository;
+    private final ZoneRegistry zoneRegistry;
     private final TagService tagService;
+    private final ZoneService zoneService;
 
     @InitBinder("passwordForm")
     public void passwordInitBinder(WebDataBinder webDataBinder) {
@@ -84,7 +82,13 @@ public class SettingsController {
             return SETTINGS_PROFILE_VIEW_NAME;
         }
 
-        accountService.updateProfile(account, profile);
+        try {
+            accountService.updateProfile(account, profile);
+        } catch (IllegalArgumentException e) {
+            errors.rejectValue("profileImage", "wrong.value", e.getMessage());
+            model.addAttribute(account);
+            return SETTINGS_PROFILE_VIEW_NAME;
+        }
         attributes.addFlashAttribute("message","프로필을 수정했습니다.");
         return "redirect:" + SETTINGS_PROFILE_URL;
     }
@@ -153,15 +157,11 @@ public class SettingsController {
     }
 
     @GetMapping(SETTINGS_TAGS_URL)
-    public String updateTags(@CurrentUser Account account, Model model) throws JsonProcessingException {
+    public String updateTags(@CurrentUser Account account, Model model) {
         model.addAttribute(account);
         Set<Tag> tags = accountService.getTags(account);
         model.addAttribute("tags",tags.stream().map(Tag::getTagTitle).collect(Collectors.toList()));
-
-        List<String> allTags = tagRepository.findAll().stream().map(Tag::getTagTitle)
-            .collect(Collectors.toList());
-        //objectMapper로 allTags를 Json으로 변환함
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allTags));
+        // 자동완성은 화면에서 /tags/suggest 로 입력할 때마다 받아온다
         return SETTINGS_TAGS_VIEW_NAME;
     }
 
@@ -182,7 +182,7 @@ public class SettingsController {
     @ResponseBody
     public ResponseEntity removeTag(@CurrentUser Account account, @RequestBody TagForm tagForm) {
         String title = tagForm.getTagTitle();
-        Tag tag = tagRepository.findByTagTitle(title);
+        Tag tag = tagService.findByTitle(title);
         if(tag == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -191,17 +191,32 @@ public class SettingsController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping(SETTINGS_TAGS_URL + "/batch")
+    @ResponseBody
+    public ResponseEntity updateTagsInBatch(@CurrentUser Account account,
+                                            @Valid @RequestBody BatchUpdateForm batchUpdateForm) {
+        if (!batchUpdateForm.getAdded().stream().allMatch(TagService::isValidTitle)) {
+            return ResponseEntity.badRequest().build();
+        }
+        // 새 태그는 TagService 가 제목마다 따로 커밋하므로 아래 조인 테이블 수정과 한 트랜잭션으로 묶을 수 없다.
+        // 조인 테이블 수정이 실패하면 새 태그만 남지만, 태그는 모두가 같이 쓰고 지우지 않으므로 그대로 둔다.
+        List<Tag> added = batchUpdateForm.getAdded().stream().map(tagService::findOrCreateNew)
+            .collect(Collectors.toList());
+        List<Tag> removed = batchUpdateForm.getRemoved().stream().map(tagService::findByTitle)
+            .filter(Objects::nonNull).collect(Collectors.toList());
+
+        accountService.updateTags(account, added, removed);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/settings/zones")
-    public String updateZonesForm(@CurrentUser Account account, Model model)
-        throws JsonProcessingException {
+    public String updateZonesForm(@CurrentUser Account account, Model model) {
         model.addAttribute(account);
 
         Set<Zone> zones = accountService.getZones(account);
         model.addAttribute("zones",zones.stream().map(Zone::toString).collect(Collectors.toList()));
 
-        List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString)
-            .collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allZones));
+        model.addAttribute("whitelist", zoneRegistry.getWhitelistJson());
 
         return "settings/zones";
     }
@@ -209,8 +224,7 @@ public class SettingsController {
     @PostMapping("/settings/zones/add")
     @ResponseBody
     public ResponseEntity addZone(@CurrentUser Account account, @RequestBody ZoneForm zoneForm){
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
-            zoneForm.getProvinceName());
+        Zone zone = zoneService.findByDisplayName(zoneForm.getZoneName());
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -222,8 +236,7 @@ public class SettingsController {
     @PostMapping("/settings/zones/remove")
     @ResponseBody
     public ResponseEntity removeZone(@CurrentUser Account account, @RequestBody ZoneForm zoneForm) {
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
-            zoneForm.getProvinceName());
+        Zone zone = zoneService.findByDisplayName(zoneForm.getZoneName());
         if(zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -232,8 +245,19 @@ public class SettingsController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/settings/zones/batch")
+    @ResponseBody
+    public ResponseEntity updateZonesInBatch(@CurrentUser Account account,
+                                             @Valid @RequestBody BatchUpdateForm batchUpdateForm) {
+        List<Zone> added = batchUpdateForm.getAdded().stream().map(zoneService::findByDisplayName)
+            .collect(Collectors.toList());
+        if (added.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Zone> removed = batchUpdateForm.getRemoved().stream().map(zoneService::findByDisplayName)
+            .filter(Objects::nonNull).collect(Collectors.toList());
 
-
-
-
+        accountService.updateZones(account, added, removed);
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,19 @@
+package com.studyolle.settings.form;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 화면에서 모아 보낸 태그나 지역의 추가/삭제 목록. 값은 태그 제목이나 지역 표시 이름이다.
+ */
+@Data
+public class BatchUpdateForm {
+
+    @Size(max = 100)
+    private List<String> added = new ArrayList<>();
+
+    @Size(max = 100)
+    private List<String> removed = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package com.studyolle.study;
+
+import lombok.Getter;
+
+@Getter
+public class NearbyStudy {
+
+    private final String path;
+
+    private final String title;
+
+    private final String shortDescription;
+
+    private final int memberCount;
+
+    /** 가장 가까운 내 활동 지역에서 스터디 지역까지의 거리(km, 소수 첫째 자리) */
+    private final double distance;
+
+    NearbyStudy(StudyRepository.StudySummary study, double distanceKm) {
+        this.path = study.getPath();
+        this.title = study.getTitle();
+        this.shortDescription = study.getShortDescription();
+        this.memberCount = study.getMemberCount();
+        this.distance = Math.round(distanceKm * 10) / 10.0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.studyolle.study;
 
+import com.studyolle.account.AccountService;
 import com.studyolle.account.CurrentUser;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
@@ -8,6 +9,7 @@ import com.studyolle.study.validator.StudyFormValidator;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
@@ -16,19 +18,27 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.validation.Valid;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
 public class StudyController {
 
+    static final double MAX_NEARBY_RADIUS_KM = 200;
+    static final int MAX_NEARBY_STUDIES = 50;
+    static final int MEMBER_PAGE_SIZE = 20;
+    static final int MAX_MEMBER_PAGE_SIZE = 100;
+
     private final StudyService studyService;
     private final ModelMapper modelMapper;
     private final StudyFormValidator studyFormValidator;
-    private final StudyRepository studyRepository;
+    private final AccountService accountService;
 
     @InitBinder("studyForm")
     public void studyFormInitBinder(WebDataBinder webDataBinder){
@@ -56,10 +66,6 @@ public class StudyController {
     @GetMapping("/study/{path}")
     public String viewStudy(@CurrentUser Account account, @PathVariable String path, Model model){
         Study study = studyService.getStudy(path);
-//        Study study = studyRepository.findByPath(path);
-//        if (study == null) {
-//            throw new IllegalArgumentException(path + "에 해당하는 스터디가 없습니다");
-//        }
 
         model.addAttribute(account);
         model.addAttribute(study);
@@ -67,10 +73,43 @@ public class StudyController {
     }
 
     @GetMapping("/study/{path}/members")
-    public String viewStudyMembers(@CurrentUser Account account, @PathVariable String path, Model model) {
+    public String viewStudyMembers(@CurrentUser Account account, @PathVariable String path,
+                                   @RequestParam(required = false) String after, Model model) {
         Study study = studyService.getStudy(path);
         model.addAttribute(account);
         model.addAttribute(study);
+        model.addAttribute("memberPage", studyService.getMembers(study, after, MEMBER_PAGE_SIZE));
         return "study/members";
     }
+
+    @GetMapping(value = "/study/{path}/members", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public StudyMemberPage studyMembers(@PathVariable String path, @RequestParam(required = false) String after,
+                                        @RequestParam(defaultValue = "" + MEMBER_PAGE_SIZE) int size) {
+        Study study = studyService.getStudyToEnroll(path);
+        return studyService.getMembers(study, after, Math.max(1, Math.min(size, MAX_MEMBER_PAGE_SIZE)));
+    }
+
+    @PostMapping("/study/{path}/join")
+    public String joinStudy(@CurrentUser Account account, @PathVariable String path) {
+        Study study = studyService.getStudyToEnroll(path);
+        studyService.addMember(study, account);
+        return "redirect:/study/" + URLEncoder.encode(study.getPath(), StandardCharsets.UTF_8) + "/members";
+    }
+
+    @PostMapping("/study/{path}/leave")
+    public String leaveStudy(@CurrentUser Account account, @PathVariable String path) {
+        Study study = studyService.getStudyToEnroll(path);
+        studyService.removeMember(study, account);
+        return "redirect:/study/" + URLEncoder.encode(study.getPath(), StandardCharsets.UTF_8) + "/members";
+    }
+
+    @GetMapping("/studies/nearby")
+    @ResponseBody
+    public List<NearbyStudy> nearbyStudies(@CurrentUser Account account,
+                                           @RequestParam(defaultValue = "30") double radius,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return studyService.findNearbyStudies(accountService.getZones(account),
+            Math.max(0, Math.min(radius, MAX_NEARBY_RADIUS_KM)), Math.max(0, Math.min(limit, MAX_NEARBY_STUDIES)));
+    }
 }
@@ -0,0 +1,34 @@
+package com.studyolle.study;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 구성원/관리자 수가 조인 테이블과 어긋났으면 다시 센다. 직접 SQL 로 고치거나 실패한 요청이 남긴 차이를 메운다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudyCounterReconciler {
+
+    private final StudyRepository studyRepository;
+
+    // 인원 수 컬럼이 새로 생긴 기존 DB 는 0 으로 채워져 있으므로 시작할 때도 한 번 맞춘다
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.study-counter-reconcile-cron:0 30 4 * * *}")
+    public void reconcile() {
+        int members = studyRepository.reconcileMemberCounts();
+        int managers = studyRepository.reconcileManagerCounts();
+        if (members + managers > 0) {
+            log.warn("fixed study counters: {} member counts, {} manager counts", members, managers);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.studyolle.study;
+
+import com.studyolle.domain.Zone;
+import com.studyolle.zone.ZoneRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 지역별 스터디 id 목록. 지역 격자({@link ZoneRegistry#findWithin})로 반경 안의 지역을 고르고 그 지역의 스터디를 거리순으로 돌려준다.
+ * 시작할 때 study_zones 를 한 번 읽고, 그 뒤로는 스터디 지역이 바뀔 때마다 커밋 후에 고친다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudyLocationIndex {
+
+    private final StudyRepository studyRepository;
+    private final ZoneRegistry zoneRegistry;
+
+    private volatile Map<Long, Set<Long>> studiesByZone = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // 다시 만드는 중에 커밋된 변경은 끝난 뒤에 다시 적용된다. 추가와 삭제 모두 여러 번 해도 결과가 같다.
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Set<Long>> index = new ConcurrentHashMap<>();
+        List<StudyRepository.StudyZone> rows = studyRepository.findAllStudyZones();
+        for (StudyRepository.StudyZone row : rows) {
+            index.computeIfAbsent(row.getZoneId(), id -> ConcurrentHashMap.newKeySet()).add(row.getStudyId());
+        }
+        studiesByZone = index;
+        log.debug("study location index rebuilt with {} study zones in {}ms", rows.size(),
+            System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudyZonesChanged(StudyZonesChangedEvent event) {
+        Map<Long, Set<Long>> index = studiesByZone;
+        for (Long zoneId : event.getRemovedZoneIds()) {
+            Set<Long> studies = index.get(zoneId);
+            if (studies != null) {
+                studies.remove(event.getStudyId());
+            }
+        }
+        for (Long zoneId : event.getAddedZoneIds()) {
+            index.computeIfAbsent(zoneId, id -> ConcurrentHashMap.newKeySet()).add(event.getStudyId());
+        }
+    }
+
+    /**
+     * origins 중 가장 가까운 지역을 기준으로 radiusKm 안에 있는 스터디를 가까운 순으로 돌려준다.
+     * 공개 여부나 모집 여부는 보지 않는다.
+     */
+    public List<Hit> findNearby(Collection<Zone> origins, double radiusKm) {
+        Map<Long, Double> zoneDistances = new HashMap<>();
+        for (Zone origin : origins) {
+            Zone located = zoneRegistry.findById(origin.getId());
+            if (located == null || !located.hasLocation()) {
+                continue;
+            }
+            zoneRegistry.findWithin(located.getLatitude(), located.getLongitude(), radiusKm)
+                .forEach((zoneId, distance) -> zoneDistances.merge(zoneId, distance, Math::min));
+        }
+
+        Map<Long, Set<Long>> index = studiesByZone;
+        Map<Long, Double> studyDistances = new HashMap<>();
+        zoneDistances.forEach((zoneId, distance) -> {
+            Set<Long> studies = index.get(zoneId);
+            if (studies != null) {
+                studies.forEach(studyId -> studyDistances.merge(studyId, distance, Math::min));
+            }
+        });
+
+        List<Hit> hits = new ArrayList<>(studyDistances.size());
+        studyDistances.forEach((studyId, distance) -> hits.add(new Hit(studyId, distance)));
+        hits.sort(Hit.ORDER);
+        return hits;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble(Hit::getDistanceKm)
+            .thenComparing(Hit::getStudyId);
+
+        private final Long studyId;
+        private final double distanceKm;
+    }
+}
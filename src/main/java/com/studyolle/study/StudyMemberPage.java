@@ -0,0 +1,53 @@
+package com.studyolle.study;
+
+import com.studyolle.study.StudyRepository.MemberSummary;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 가입 순서로 나눈 구성원 목록 한 쪽. 다음 쪽은 마지막 구성원의 (가입 시각, 계정 id) 를 커서로 넘겨서 읽는다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StudyMemberPage {
+
+    private final List<MemberSummary> members;
+
+    /** 다음 쪽을 읽을 때 after 로 넘기는 값. 마지막 쪽이면 null */
+    private final String next;
+
+    static String cursorOf(MemberSummary member) {
+        String value = member.getJoinedAt() + "," + member.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 커서를 (가입 시각, 계정 id) 로 푼다. 비어 있거나 형식이 틀리면 null 을 돌려주고 처음부터 읽는다.
+     */
+    static Cursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = value.lastIndexOf(',');
+            return new Cursor(LocalDateTime.parse(value.substring(0, comma)), Long.valueOf(value.substring(comma + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Cursor {
+
+        static final Cursor FIRST = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+        private final LocalDateTime joinedAt;
+        private final Long accountId;
+    }
+}
@@ -0,0 +1,90 @@
+package com.studyolle.study;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.studyolle.config.CacheEviction;
+import java.time.Duration;
+import java.util.function.Function;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스터디 path 에서 id 로 가는 캐시. 없는 path 도 잠깐 기억해서 잘못된 주소가 매번 DB 를 치지 않게 한다.
+ * id 만 들고 있으므로 path 가 바뀌거나 스터디가 생길 때만 지우면 된다.
+ */
+@Slf4j
+@Component
+public class StudyPathCache {
+
+    static final Duration TTL = Duration.ofMinutes(10);
+    static final Duration MISSING_TTL = Duration.ofSeconds(30);
+
+    private final Cache<String, Entry> cache = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfter(new Expiry<String, Entry>() {
+            @Override
+            public long expireAfterCreate(String path, Entry entry, long currentTime) {
+                return (entry.isMissing() ? MISSING_TTL : TTL).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String path, Entry entry, long currentTime, long currentDuration) {
+                return expireAfterCreate(path, entry, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String path, Entry entry, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        })
+        .recordStats()
+        .build();
+
+    /**
+     * loader 는 스터디가 없으면 {@link Entry#MISSING} 을 돌려준다.
+     */
+    public Entry get(String path, Function<String, Entry> loader) {
+        return cache.get(path, loader);
+    }
+
+    public void invalidate(String path) {
+        CacheEviction.evictNowAndAfterCommit(() -> cache.invalidate(path));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void logStats() {
+        CacheStats stats = cache.stats();
+        if (stats.requestCount() > 0) {
+            log.info("study path cache: {} hits, {} misses, hit rate {}", stats.hitCount(), stats.missCount(),
+                String.format("%.3f", stats.hitRate()));
+        }
+    }
+
+    @Value
+    public static class Entry {
+
+        public static final Entry MISSING = new Entry(null);
+
+        Long id;
+
+        public boolean isMissing() {
+            return id == null;
+        }
+    }
+}
@@ -1,21 +1,180 @@
 package com.studyolle.study;
 
 import com.studyolle.domain.Study;
-import org.springframework.data.jpa.repository.EntityGraph;
-import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(readOnly = true)
 public interface StudyRepository extends JpaRepository<Study,Long> {
     boolean existsByPath(String path);
 
-    @EntityGraph(value = "Study.withAll" , type = EntityGraph.EntityGraphType.LOAD)
-    Study findByPath(String path);
+    StudyKey findStudyKeyByPath(String path);
 
-    @EntityGraph(value = "Study.withTagsAndManagers",type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithTagsByPath(String path);
+    // 스터디 화면용. 컬렉션을 한 쿼리에서 모두 join 하면 tags x zones x managers x members 행이 나오므로
+    // 컬렉션마다 따로 읽어서 행 수가 각 컬렉션 크기의 합이 되도록 한다. 이미 읽은 Study 의 컬렉션이 채워진다.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct s from Study s left join fetch s.tags where s.id = :id")
+    Study findWithTagsById(Long id);
 
-    @EntityGraph(value = "Study.withZonesAndManagers",type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithZonesByPath(String path);
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct s from Study s left join fetch s.zones where s.id = :id")
+    Study findWithZonesById(Long id);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct s from Study s left join fetch s.managers where s.id = :id")
+    Study findWithManagersById(Long id);
+
+    // 조인 테이블에 바로 넣고 지운다. 이미 있는 행은 다시 넣지 않고, 없는 행은 지우지 않는다.
+    // 영속성 컨텍스트에 올라와 있는 Study의 컬렉션은 갱신되지 않는다.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into study_tags (study_id, tags_id) select :studyId, r.id from tag r"
+        + " where r.id in (:ids) and not exists"
+        + " (select 1 from study_tags j where j.study_id = :studyId and j.tags_id = r.id)", nativeQuery = true)
+    int addTags(Long studyId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from study_tags where study_id = :studyId and tags_id in (:ids)", nativeQuery = true)
+    int removeTags(Long studyId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into study_zones (study_id, zones_id) select :studyId, r.id from zone r"
+        + " where r.id in (:ids) and not exists"
+        + " (select 1 from study_zones j where j.study_id = :studyId and j.zones_id = r.id)", nativeQuery = true)
+    int addZones(Long studyId, Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from study_zones where study_id = :studyId and zones_id in (:ids)", nativeQuery = true)
+    int removeZones(Long studyId, Collection<Long> ids);
+
+    // 공개되어 모집 중이고 닫히지 않았으며 아직 구성원이나 관리자가 아닐 때만 넣는다
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into study_members (study_id, members_id) select s.id, :accountId from study s"
+        + " where s.id = :studyId and s.published = true and s.recruiting = true and s.closed = false"
+        + " and not exists (select 1 from study_members m where m.study_id = s.id and m.members_id = :accountId)"
+        + " and not exists (select 1 from study_managers m where m.study_id = s.id and m.managers_id = :accountId)",
+        nativeQuery = true)
+    int addMember(Long studyId, Long accountId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from study_members where study_id = :studyId and members_id = :accountId", nativeQuery = true)
+    int removeMember(Long studyId, Long accountId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into study_managers (study_id, managers_id) select s.id, :accountId from study s"
+        + " where s.id = :studyId"
+        + " and not exists (select 1 from study_managers m where m.study_id = s.id and m.managers_id = :accountId)",
+        nativeQuery = true)
+    int addManager(Long studyId, Long accountId);
+
+    // 값을 읽어서 쓰지 않고 DB 에서 더하므로 동시에 가입해도 빠지는 수가 없다. 0 밑으로는 내려가지 않는다.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update study set member_count = member_count + :delta"
+        + " where id = :studyId and member_count + :delta >= 0", nativeQuery = true)
+    int addToMemberCount(Long studyId, int delta);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update study set manager_count = manager_count + :delta"
+        + " where id = :studyId and manager_count + :delta >= 0", nativeQuery = true)
+    int addToManagerCount(Long studyId, int delta);
+
+    // 어긋난 인원 수만 조인 테이블 기준으로 다시 센다
+    @Transactional
+    @Modifying
+    @Query(value = "update study s set member_count = (select count(*) from study_members m where m.study_id = s.id)"
+        + " where member_count <> (select count(*) from study_members m where m.study_id = s.id)", nativeQuery = true)
+    int reconcileMemberCounts();
+
+    @Transactional
+    @Modifying
+    @Query(value = "update study s set manager_count = (select count(*) from study_managers m where m.study_id = s.id)"
+        + " where manager_count <> (select count(*) from study_managers m where m.study_id = s.id)", nativeQuery = true)
+    int reconcileManagerCounts();
+
+    // 가입 순서(joined_at, 계정 id)로 커서 다음부터 size 개. 계정 엔티티 대신 목록에 필요한 값만 읽는다.
+    @Query(value = "select a.id as id, a.nickname as nickname, a.profile_image_hash as profileImageHash,"
+        + " substring(a.bio, 1, " + MemberSummary.BIO_LENGTH + ") as bio, m.joined_at as joinedAt"
+        + " from study_members m join account a on a.id = m.members_id"
+        + " where m.study_id = :studyId"
+        + " and (m.joined_at > :joinedAt or (m.joined_at = :joinedAt and m.members_id > :accountId))"
+        + " order by m.joined_at, m.members_id limit :size", nativeQuery = true)
+    List<MemberSummary> findMembersAfter(Long studyId, LocalDateTime joinedAt, Long accountId, int size);
+
+    // 조인 테이블의 기본 키(study_id, 계정 id)로 한 행만 본다
+    @Query(value = "select exists (select 1 from study_managers"
+        + " where study_id = :studyId and managers_id = :accountId)", nativeQuery = true)
+    boolean existsManager(Long studyId, Long accountId);
+
+    // 계정 쪽 인덱스(idx_study_managers_manager, idx_study_members_member)로 읽는다
+    @Query(value = "select study_id as studyId, true as manager from study_managers where managers_id = :accountId"
+        + " union all select study_id as studyId, false as manager from study_members where members_id = :accountId",
+        nativeQuery = true)
+    List<StudyRole> findStudyRoles(Long accountId);
+
+    @Query(value = "select study_id as studyId, zones_id as zoneId from study_zones", nativeQuery = true)
+    List<StudyZone> findAllStudyZones();
+
+    List<StudySummary> findByIdInAndPublishedTrueAndRecruitingTrueAndClosedFalse(Collection<Long> ids);
+
+    interface StudyZone {
+
+        Long getStudyId();
+
+        Long getZoneId();
+    }
+
+    interface StudyRole {
+
+        Long getStudyId();
+
+        boolean isManager();
+    }
+
+    interface StudyKey {
+
+        Long getId();
+    }
+
+    interface MemberSummary {
+
+        int BIO_LENGTH = 100;
+
+        Long getId();
+
+        String getNickname();
+
+        String getProfileImageHash();
+
+        String getBio();
+
+        LocalDateTime getJoinedAt();
+    }
+
+    interface StudySummary {
+
+        Long getId();
+
+        String getPath();
+
+        String getTitle();
+
+        String getShortDescription();
+
+        int getMemberCount();
+    }
 }
@@ -0,0 +1,76 @@
+package com.studyolle.study;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studyolle.account.UserAccount;
+import com.studyolle.config.CacheEviction;
+import com.studyolle.domain.Study;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 계정마다 관리하는 스터디와 가입한 스터디의 id. 화면에서 버튼과 메뉴를 고를 때 컬렉션을 읽지 않고 여기서 본다.
+ * 권한 검사는 캐시 대신 {@link StudyRepository#existsManager} 로 조인 테이블을 바로 본다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StudyRoleCache {
+
+    private final StudyRepository studyRepository;
+
+    private final Cache<Long, Roles> cache = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .recordStats()
+        .build();
+
+    public boolean isManager(Study study, UserAccount userAccount) {
+        return rolesOf(userAccount).getManaged().contains(study.getId());
+    }
+
+    public boolean isMember(Study study, UserAccount userAccount) {
+        return rolesOf(userAccount).getJoined().contains(study.getId());
+    }
+
+    public boolean isJoinable(Study study, UserAccount userAccount) {
+        return study.isPublished() && study.isRecruiting()
+            && !isMember(study, userAccount) && !isManager(study, userAccount);
+    }
+
+    private Roles rolesOf(UserAccount userAccount) {
+        return cache.get(userAccount.getId(), this::load);
+    }
+
+    private Roles load(Long accountId) {
+        Set<Long> managed = new HashSet<>();
+        Set<Long> joined = new HashSet<>();
+        for (StudyRepository.StudyRole role : studyRepository.findStudyRoles(accountId)) {
+            (role.isManager() ? managed : joined).add(role.getStudyId());
+        }
+        return new Roles(Set.copyOf(managed), Set.copyOf(joined));
+    }
+
+    public void invalidate(Long accountId) {
+        CacheEviction.evictNowAndAfterCommit(() -> cache.invalidate(accountId));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    @Value
+    static class Roles {
+
+        Set<Long> managed;
+
+        Set<Long> joined;
+    }
+}
@@ -4,10 +4,19 @@ import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
 import com.studyolle.domain.Tag;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.ImageService;
 import com.studyolle.study.form.StudyDescriptionForm;
 import com.studyolle.tag.TagRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,30 +26,37 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class StudyService {
 
+    static final int NEARBY_CHUNK_SIZE = 100;
+
     private final StudyRepository studyRepository;
     private final ModelMapper modelMapper;
     private final TagRepository tagRepository;
+    private final ImageService imageService;
+    private final StudyLocationIndex studyLocationIndex;
+    private final StudyPathCache studyPathCache;
+    private final StudyRoleCache studyRoleCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Study createNewStudy(Study study, Account account) {
         Study newStudy = studyRepository.save(study);
         newStudy.addManager(account);
+        studyPathCache.invalidate(newStudy.getPath()); // 없는 path 로 기억해 둔 것을 지운다
+        studyRoleCache.invalidate(account.getId());
         return newStudy;
     }
 
     public Study getStudyToUpdate(Account account, String path) {
         Study study = this.getStudy(path);
-        if (!account.isManagerOf(study)) {
-            throw new AccessDeniedException("해당 기능을 사용할 수 없습니다");
-        }
+        checkIfManager(account, study);
         return study;
     }
 
     public Study getStudy(String path) {
-        Study study = this.studyRepository.findByPath(path);
-        if (study == null) {
-            throw new IllegalArgumentException(path + "에 해당하는 스터디가 없습니다");
-        }
+        Study study = findByPath(path, studyRepository::findWithTagsById);
 
+        studyRepository.findWithZonesById(study.getId());
+        studyRepository.findWithManagersById(study.getId());
+        // 구성원은 화면에서 쪽 단위로 읽고, 가입 여부는 StudyRoleCache 로 본다
         return study;
     }
 
@@ -50,7 +66,7 @@ public class StudyService {
     }
 
     public void updateStudyImage(Study study, String image) {
-        study.setImage(image);
+        study.setImageHash(imageService.storeDataUrl(image));
     }
 
     public void enableStudyBanner(Study study) {
@@ -63,16 +79,32 @@ public class StudyService {
 
 
     public void addTag(Study study, Tag tag) {
-        study.getTags().add(tag);
+        studyRepository.addTags(study.getId(), Set.of(tag.getId()));
     }
 
-    public Study getStudyToUpdateTag(Account account, String path) {
-        Study study = studyRepository.findAccountWithTagsByPath(path);
-        checkIfExistingStudy(path,study);
-        checkIfManager(account,study);
+    /**
+     * path 는 캐시에서 id 로 바꾸고, 필요한 연관관계와 함께 기본 키로 읽는다.
+     * 캐시에 있던 id 로 읽지 못하거나 path 가 다르면 캐시가 오래된 것이므로 한 번 지우고 다시 찾는다.
+     */
+    private Study findByPath(String path, Function<Long, Study> loader) {
+        StudyPathCache.Entry entry = resolve(path);
+        Study study = entry.isMissing() ? null : loader.apply(entry.getId());
+        if (!entry.isMissing() && (study == null || !path.equals(study.getPath()))) {
+            studyPathCache.invalidate(path);
+            entry = resolve(path);
+            study = entry.isMissing() ? null : loader.apply(entry.getId());
+        }
+        checkIfExistingStudy(path, study);
         return study;
     }
 
+    private StudyPathCache.Entry resolve(String path) {
+        return studyPathCache.get(path, key -> {
+            StudyRepository.StudyKey studyKey = studyRepository.findStudyKeyByPath(key);
+            return studyKey == null ? StudyPathCache.Entry.MISSING : new StudyPathCache.Entry(studyKey.getId());
+        });
+    }
+
     private void checkIfExistingStudy(String path, Study study) {
         if (study == null) {
             throw new IllegalArgumentException(path + "에 해당하는 스터디가 없습니다");
@@ -80,27 +112,130 @@ public class StudyService {
     }
 
     private void checkIfManager(Account account, Study study) {
-        if (!study.isManagedBy(account)) {
+        if (!studyRepository.existsManager(study.getId(), account.getId())) {
             throw new AccessDeniedException("해당 기능을 사용할 수 없습니다");
         }
     }
 
     public void removeTag(Study study, Tag tag) {
-        study.getTags().remove(tag);
+        studyRepository.removeTags(study.getId(), Set.of(tag.getId()));
+    }
+
+    public void addZone(Study study, Zone zone) {
+        studyRepository.addZones(study.getId(), Set.of(zone.getId()));
+        eventPublisher.publishEvent(new StudyZonesChangedEvent(study.getId(), Set.of(zone.getId()), Set.of()));
+    }
+
+    public void removeZone(Study study, Zone zone) {
+        studyRepository.removeZones(study.getId(), Set.of(zone.getId()));
+        eventPublisher.publishEvent(new StudyZonesChangedEvent(study.getId(), Set.of(), Set.of(zone.getId())));
     }
 
-    public Study getStudyToUpdateZone(Account account, String path) {
-        Study study = studyRepository.findAccountWithZonesByPath(path);
-        checkIfExistingStudy(path,study);
+    public Study getStudyToEnroll(String path) {
+        return findByPath(path, id -> studyRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * 가입할 수 있으면 구성원으로 넣고 인원 수를 하나 올린다. 이미 구성원이거나 모집 중이 아니면 false.
+     */
+    public boolean addMember(Study study, Account account) {
+        if (studyRepository.addMember(study.getId(), account.getId()) == 0) {
+            return false;
+        }
+        studyRepository.addToMemberCount(study.getId(), 1);
+        studyRoleCache.invalidate(account.getId());
+        return true;
+    }
+
+    public boolean removeMember(Study study, Account account) {
+        if (studyRepository.removeMember(study.getId(), account.getId()) == 0) {
+            return false;
+        }
+        studyRepository.addToMemberCount(study.getId(), -1);
+        studyRoleCache.invalidate(account.getId());
+        return true;
+    }
+
+    public boolean addManager(Study study, Account account) {
+        if (studyRepository.addManager(study.getId(), account.getId()) == 0) {
+            return false;
+        }
+        studyRepository.addToManagerCount(study.getId(), 1);
+        studyRoleCache.invalidate(account.getId());
+        return true;
+    }
+
+    /**
+     * 가입 순서로 after 다음의 구성원 size 명. 한 명을 더 읽어서 다음 쪽이 있는지 본다.
+     */
+    @Transactional(readOnly = true)
+    public StudyMemberPage getMembers(Study study, String after, int size) {
+        StudyMemberPage.Cursor cursor = StudyMemberPage.parseCursor(after);
+        if (cursor == null) {
+            cursor = StudyMemberPage.Cursor.FIRST;
+        }
+
+        List<StudyRepository.MemberSummary> members = studyRepository.findMembersAfter(study.getId(),
+            cursor.getJoinedAt(), cursor.getAccountId(), size + 1);
+        if (members.size() <= size) {
+            return new StudyMemberPage(members, null);
+        }
+        List<StudyRepository.MemberSummary> page = members.subList(0, size);
+        return new StudyMemberPage(page, StudyMemberPage.cursorOf(page.get(size - 1)));
+    }
+
+    public Study getStudyToUpdateMembership(Account account, String path) {
+        Study study = getStudyToEnroll(path);
         checkIfManager(account,study);
         return study;
     }
 
-    public void addZone(Study study, Zone zone) {
-        study.getZones().add(zone);
+    public void updateTags(Study study, Collection<Tag> added, Collection<Tag> removed) {
+        if (!removed.isEmpty()) {
+            studyRepository.removeTags(study.getId(), idsOf(removed, Tag::getId));
+        }
+        if (!added.isEmpty()) {
+            studyRepository.addTags(study.getId(), idsOf(added, Tag::getId));
+        }
     }
 
-    public void removeZone(Study study, Zone zone) {
-        study.getZones().remove(zone);
+    public void updateZones(Study study, Collection<Zone> added, Collection<Zone> removed) {
+        Set<Long> addedIds = idsOf(added, Zone::getId);
+        Set<Long> removedIds = idsOf(removed, Zone::getId);
+        if (!removedIds.isEmpty()) {
+            studyRepository.removeZones(study.getId(), removedIds);
+        }
+        if (!addedIds.isEmpty()) {
+            studyRepository.addZones(study.getId(), addedIds);
+        }
+        eventPublisher.publishEvent(new StudyZonesChangedEvent(study.getId(), addedIds, removedIds));
+    }
+
+    /**
+     * 내 활동 지역에서 radiusKm 안에 있는, 공개되어 모집 중인 스터디를 가까운 순으로 limit 개까지.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyStudy> findNearbyStudies(Collection<Zone> zones, double radiusKm, int limit) {
+        List<StudyLocationIndex.Hit> hits = studyLocationIndex.findNearby(zones, radiusKm);
+        List<NearbyStudy> result = new ArrayList<>(Math.min(limit, hits.size()));
+        // 가까운 것부터 조금씩 읽어서 공개/모집 조건에 맞는 것만 채운다
+        for (int from = 0; from < hits.size() && result.size() < limit; from += NEARBY_CHUNK_SIZE) {
+            List<StudyLocationIndex.Hit> chunk = hits.subList(from, Math.min(from + NEARBY_CHUNK_SIZE, hits.size()));
+            Map<Long, StudyRepository.StudySummary> open = studyRepository
+                .findByIdInAndPublishedTrueAndRecruitingTrueAndClosedFalse(
+                    idsOf(chunk, StudyLocationIndex.Hit::getStudyId)).stream()
+                .collect(Collectors.toMap(StudyRepository.StudySummary::getId, Function.identity()));
+            for (StudyLocationIndex.Hit hit : chunk) {
+                StudyRepository.StudySummary study = open.get(hit.getStudyId());
+                if (study != null && result.size() < limit) {
+                    result.add(new NearbyStudy(study, hit.getDistanceKm()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private <T> Set<Long> idsOf(Collection<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toSet());
     }
 }
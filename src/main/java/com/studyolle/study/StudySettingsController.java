@@ -1,21 +1,21 @@
 package com.studyolle.study;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyolle.account.CurrentUser;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Study;
 import com.studyolle.domain.Tag;
 import com.studyolle.domain.Zone;
+import com.studyolle.settings.form.BatchUpdateForm;
 import com.studyolle.settings.form.TagForm;
 import com.studyolle.settings.form.ZoneForm;
 import com.studyolle.study.form.StudyDescriptionForm;
-import com.studyolle.tag.TagRepository;
 import com.studyolle.tag.TagService;
-import com.studyolle.zone.ZoneRepository;
+import com.studyolle.zone.ZoneRegistry;
+import com.studyolle.zone.ZoneService;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,10 +34,9 @@ public class StudySettingsController {
 
     private final StudyService studyService;
     private final ModelMapper modelMapper;
-    private final TagRepository tagRepository;
-    private final ObjectMapper objectMapper;
     private final TagService tagService;
-    private final ZoneRepository zoneRepository;
+    private final ZoneRegistry zoneRegistry;
+    private final ZoneService zoneService;
 
     @GetMapping("/description")
     public String viewStudySetting(@CurrentUser Account account, @PathVariable String path, Model model){
@@ -77,7 +76,12 @@ public class StudySettingsController {
     public String studyImageSubmit(@CurrentUser Account account, @PathVariable String path,
                                    String image,RedirectAttributes attributes){
         Study study = studyService.getStudyToUpdate(account, path);
-        studyService.updateStudyImage(study,image);
+        try {
+            studyService.updateStudyImage(study,image);
+        } catch (IllegalArgumentException e) {
+            attributes.addFlashAttribute("message", e.getMessage());
+            return "redirect:/study/" + getPath(path) + "/settings/banner";
+        }
         attributes.addFlashAttribute("message","스터디 이미지를 수정했습니다");
         return "redirect:/study/" + getPath(path) + "/settings/banner";
     }
@@ -101,17 +105,13 @@ public class StudySettingsController {
     }
 
     @GetMapping("/tags")
-    public String studyTagsForm(@CurrentUser Account account, @PathVariable String path, Model model)
-        throws JsonProcessingException {
+    public String studyTagsForm(@CurrentUser Account account, @PathVariable String path, Model model) {
         Study study = studyService.getStudyToUpdate(account, path);
         model.addAttribute(account);
         model.addAttribute(study);
 
         model.addAttribute("tags",study.getTags().stream()
             .map(Tag::getTagTitle).collect(Collectors.toList()));
-        List<String> allTagTitles = tagRepository.findAll().stream().map(Tag::getTagTitle)
-            .collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allTagTitles));
 
         return "study/settings/tags";
 
@@ -121,7 +121,7 @@ public class StudySettingsController {
     @ResponseBody
     public ResponseEntity addTag(@CurrentUser Account account, @PathVariable String path,
                                 @RequestBody TagForm tagForm) {
-       Study study = studyService.getStudyToUpdateTag(account,path);
+       Study study = studyService.getStudyToUpdateMembership(account, path);
        Tag tag = tagService.findOrCreateNew(tagForm.getTagTitle());
        studyService.addTag(study,tag);
        return ResponseEntity.ok().build();
@@ -131,8 +131,8 @@ public class StudySettingsController {
     @ResponseBody
     public ResponseEntity removeTag(@CurrentUser Account account, @PathVariable String path,
                                     @RequestBody TagForm tagForm) {
-        Study study = studyService.getStudyToUpdateTag(account, path);
-        Tag tag = tagRepository.findByTagTitle(tagForm.getTagTitle());
+        Study study = studyService.getStudyToUpdateMembership(account, path);
+        Tag tag = tagService.findByTitle(tagForm.getTagTitle());
         if(tag == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -141,18 +141,33 @@ public class StudySettingsController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/tags/batch")
+    @ResponseBody
+    public ResponseEntity updateTagsInBatch(@CurrentUser Account account, @PathVariable String path,
+                                            @Valid @RequestBody BatchUpdateForm batchUpdateForm) {
+        Study study = studyService.getStudyToUpdateMembership(account, path);
+        if (!batchUpdateForm.getAdded().stream().allMatch(TagService::isValidTitle)) {
+            return ResponseEntity.badRequest().build();
+        }
+        // 새 태그는 스터디 태그 수정과 따로 커밋된다 (SettingsController#updateTagsInBatch 참고)
+        List<Tag> added = batchUpdateForm.getAdded().stream().map(tagService::findOrCreateNew)
+            .collect(Collectors.toList());
+        List<Tag> removed = batchUpdateForm.getRemoved().stream().map(tagService::findByTitle)
+            .filter(Objects::nonNull).collect(Collectors.toList());
+
+        studyService.updateTags(study, added, removed);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/zones")
-    public String studyZonesForm(@CurrentUser Account account, @PathVariable String path, Model model)
-        throws JsonProcessingException {
+    public String studyZonesForm(@CurrentUser Account account, @PathVariable String path, Model model) {
         Study study = studyService.getStudyToUpdate(account, path);
         model.addAttribute(account);
         model.addAttribute(study);
         model.addAttribute("zones",study.getZones().stream()
             .map(Zone::toString).collect(Collectors.toList()));
 
-        List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString)
-            .collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allZones));
+        model.addAttribute("whitelist", zoneRegistry.getWhitelistJson());
         return "study/settings/zones";
     }
 
@@ -160,9 +175,8 @@ public class StudySettingsController {
     @ResponseBody
     public ResponseEntity addZone(@CurrentUser Account account, @PathVariable String path,
                                   @RequestBody ZoneForm zoneForm) {
-        Study study = studyService.getStudyToUpdateZone(account,path);
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
-            zoneForm.getProvinceName());
+        Study study = studyService.getStudyToUpdateMembership(account, path);
+        Zone zone = zoneService.findByDisplayName(zoneForm.getZoneName());
         if (zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -175,9 +189,8 @@ public class StudySettingsController {
     @ResponseBody
     public ResponseEntity removeZone(@CurrentUser Account account, @PathVariable String path,
                                      @RequestBody ZoneForm zoneForm ) {
-        Study study = studyService.getStudyToUpdateZone(account, path);
-        Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
-            zoneForm.getProvinceName());
+        Study study = studyService.getStudyToUpdateMembership(account, path);
+        Zone zone = zoneService.findByDisplayName(zoneForm.getZoneName());
         if(zone == null) {
             return ResponseEntity.badRequest().build();
         }
@@ -187,6 +200,23 @@ public class StudySettingsController {
     }
 
 
+    @PostMapping("/zones/batch")
+    @ResponseBody
+    public ResponseEntity updateZonesInBatch(@CurrentUser Account account, @PathVariable String path,
+                                             @Valid @RequestBody BatchUpdateForm batchUpdateForm) {
+        Study study = studyService.getStudyToUpdateMembership(account, path);
+        List<Zone> added = batchUpdateForm.getAdded().stream().map(zoneService::findByDisplayName)
+            .collect(Collectors.toList());
+        if (added.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Zone> removed = batchUpdateForm.getRemoved().stream().map(zoneService::findByDisplayName)
+            .filter(Objects::nonNull).collect(Collectors.toList());
+
+        studyService.updateZones(study, added, removed);
+        return ResponseEntity.ok().build();
+    }
+
     private String getPath(String path) {
         return URLEncoder.encode(path, StandardCharsets.UTF_8);
     }
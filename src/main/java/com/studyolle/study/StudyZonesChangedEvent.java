@@ -0,0 +1,14 @@
+package com.studyolle.study;
+
+import java.util.Set;
+import lombok.Value;
+
+@Value
+public class StudyZonesChangedEvent {
+
+    Long studyId;
+
+    Set<Long> addedZoneIds;
+
+    Set<Long> removedZoneIds;
+}
@@ -0,0 +1,23 @@
+package com.studyolle.tag;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequiredArgsConstructor
+public class TagController {
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    private final TagSuggestIndex tagSuggestIndex;
+
+    @GetMapping("/tags/suggest")
+    @ResponseBody
+    public List<String> suggest(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return tagSuggestIndex.suggest(q, Math.min(limit, MAX_SUGGESTIONS));
+    }
+}
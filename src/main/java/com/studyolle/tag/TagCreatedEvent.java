@@ -0,0 +1,9 @@
+package com.studyolle.tag;
+
+import lombok.Value;
+
+@Value
+public class TagCreatedEvent {
+
+    String tagTitle;
+}
@@ -1,12 +1,27 @@
 package com.studyolle.tag;
 
 import com.studyolle.domain.Tag;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(readOnly = true)
 public interface TagRepository extends JpaRepository<Tag,Long> {
 
     Tag findByTagTitle(String title);
+
+    @Query(value = "select t.tag_title as tagTitle,"
+        + " (select count(*) from account_tags a where a.tags_id = t.id)"
+        + " + (select count(*) from study_tags s where s.tags_id = t.id) as popularity"
+        + " from tag t", nativeQuery = true)
+    List<TagPopularity> findAllWithPopularity();
+
+    interface TagPopularity {
+
+        String getTagTitle();
+
+        long getPopularity();
+    }
 }
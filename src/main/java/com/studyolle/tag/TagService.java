@@ -1,23 +1,129 @@
 package com.studyolle.tag;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.studyolle.domain.Tag;
-import lombok.RequiredArgsConstructor;
+import java.text.Normalizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * 태그 제목을 id 로 바꿔 주는 캐시를 둔다. 같은 새 태그를 여러 요청이 동시에 만들려고 하면
+ * 한 스레드만 DB 에 가고 나머지는 그 결과를 기다린다. 태그는 지우지 않으므로 캐시한 id 는 다시 확인하지 않는다.
+ */
 @Service
 @Transactional
-@RequiredArgsConstructor
 public class TagService {
 
+    public static final int MAX_TITLE_LENGTH = 20;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, Long> tagIds = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .build();
+    private final ConcurrentMap<String, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+
+    public TagService(TagRepository tagRepository, ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager) {
+        this.tagRepository = tagRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 앞뒤 공백을 없애고 유니코드를 NFC 로 맞추고 연속된 공백을 하나로 줄인다.
+     */
+    public static String normalize(String tagTitle) {
+        return WHITESPACE.matcher(Normalizer.normalize(tagTitle.trim(), Normalizer.Form.NFC)).replaceAll(" ");
+    }
+
+    /**
+     * 화면의 Tagify 와 같은 규칙으로, 정리한 제목이 비어 있지 않고 20자를 넘지 않아야 한다.
+     */
+    public static boolean isValidTitle(String tagTitle) {
+        if (tagTitle == null) {
+            return false;
+        }
+        String title = normalize(tagTitle);
+        return !title.isEmpty() && title.length() <= MAX_TITLE_LENGTH;
+    }
 
+    /**
+     * 새 태그는 호출한 쪽의 트랜잭션과 상관없이 따로 커밋한다. 바깥 트랜잭션이 롤백되면 아무도 쓰지 않는 태그가
+     * 남을 수 있지만, 같은 트랜잭션 안에서 같은 새 태그를 다시 찾아도 바로 캐시에서 나오고
+     * 다른 서버와 동시에 만들다 실패해도 바깥 트랜잭션은 그대로 쓸 수 있다.
+     * 바깥 트랜잭션이 있으면 새 태그를 넣는 동안만 커넥션을 하나 더 쓴다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Tag findOrCreateNew(String tagTitle) {
-        Tag tag = tagRepository.findByTagTitle(tagTitle);
-        if (tag == null) {
-            tag = tagRepository.save(Tag.builder().tagTitle(tagTitle).build());
+        String title = normalize(tagTitle);
+        Long id = tagIds.getIfPresent(title);
+        return tagRepository.getById(id != null ? id : resolve(title));
+    }
+
+    public Tag findByTitle(String tagTitle) {
+        return tagRepository.findByTagTitle(normalize(tagTitle));
+    }
+
+    private Long resolve(String title) {
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        CompletableFuture<Long> running = inFlight.putIfAbsent(title, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        Long id;
+        try {
+            id = findOrInsert(title);
+        } catch (RuntimeException e) {
+            inFlight.remove(title, mine);
+            mine.completeExceptionally(e);
+            throw e;
         }
-        return tag;
+        // 새 태그는 이미 커밋됐으므로 바로 캐시에 넣고 기다리던 요청을 깨운다
+        tagIds.put(title, id);
+        inFlight.remove(title, mine);
+        mine.complete(id);
+        return id;
     }
 
+    private Long findOrInsert(String title) {
+        Tag tag = tagRepository.findByTagTitle(title);
+        if (tag != null) {
+            return tag.getId();
+        }
+
+        // 새 트랜잭션에서 커밋하므로 실패해도 이 트랜잭션만 롤백되고 바깥 트랜잭션에서 다시 읽을 수 있다
+        try {
+            return transactionTemplate.execute(status -> {
+                Tag saved = tagRepository.saveAndFlush(Tag.builder().tagTitle(title).build());
+                eventPublisher.publishEvent(new TagCreatedEvent(saved.getTagTitle()));
+                return saved.getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 다른 서버가 먼저 만들었으면 그걸 쓴다
+            return tagRepository.findByTagTitle(title).getId();
+        }
+    }
 }
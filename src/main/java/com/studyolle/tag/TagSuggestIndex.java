@@ -0,0 +1,197 @@
+package com.studyolle.tag;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 태그 자동완성 인덱스. 정렬된 배열에서 이진 탐색으로 접두어를 찾고, 글자 1-gram 과 2-gram 목록으로 중간에 포함된 경우를 찾는다.
+ * 결과는 접두어 일치를 먼저, 그다음 인기순(태그를 쓰는 계정과 스터디 수)으로 정렬한다.
+ *
+ * <p>새 태그는 인덱스를 다시 만들지 않고 delta 목록에 쌓아서 따로 검사한다.
+ * delta 가 커지거나 인기도를 갱신하는 주기가 되면 전체를 다시 만든다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagSuggestIndex {
+
+    static final int MAX_DELTA = 1000;
+
+    private final TagRepository tagRepository;
+
+    private volatile Index index = Index.build(List.of());
+    private final List<String> delta = new CopyOnWriteArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void refreshPopularity() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagCreated(TagCreatedEvent event) {
+        delta.add(event.getTagTitle());
+        if (delta.size() > MAX_DELTA) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // 다시 만드는 동안 생긴 태그는 delta 에 남겨 둔다
+        List<String> pending = new ArrayList<>(delta);
+        index = Index.build(tagRepository.findAllWithPopularity());
+        delta.removeAll(pending);
+        log.debug("tag suggest index rebuilt with {} tags in {}ms", index.titles.length,
+            System.currentTimeMillis() - start);
+    }
+
+    public List<String> suggest(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Index current = index;
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, Candidate.ORDER.reversed());
+        Set<String> seen = new HashSet<>();
+        current.collect(q, candidate -> offer(top, seen, candidate, limit));
+        for (String title : delta) {
+            String key = normalize(title);
+            if (key.contains(q)) {
+                offer(top, seen, new Candidate(title, key.startsWith(q), 0), limit);
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(top);
+        result.sort(Candidate.ORDER);
+        List<String> titles = new ArrayList<>(result.size());
+        result.forEach(candidate -> titles.add(candidate.title));
+        return titles;
+    }
+
+    private static void offer(PriorityQueue<Candidate> top, Set<String> seen, Candidate candidate, int limit) {
+        if (!seen.add(candidate.title)) {
+            return;
+        }
+        top.offer(candidate);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : Normalizer.normalize(value.trim(), Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    private static class Candidate {
+
+        static final Comparator<Candidate> ORDER = Comparator.<Candidate>comparingInt(c -> c.prefix ? 0 : 1)
+            .thenComparing(c -> -c.popularity)
+            .thenComparing(c -> c.title);
+
+        final String title;
+        final boolean prefix;
+        final long popularity;
+
+        Candidate(String title, boolean prefix, long popularity) {
+            this.title = title;
+            this.prefix = prefix;
+            this.popularity = popularity;
+        }
+    }
+
+    private static class Index {
+
+        private static final int[] NONE = new int[0];
+
+        final String[] titles;
+        final String[] keys;
+        final long[] popularity;
+        final Map<String, int[]> postings;
+
+        private Index(String[] titles, String[] keys, long[] popularity, Map<String, int[]> postings) {
+            this.titles = titles;
+            this.keys = keys;
+            this.popularity = popularity;
+            this.postings = postings;
+        }
+
+        static Index build(List<TagRepository.TagPopularity> rows) {
+            List<TagRepository.TagPopularity> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparing(row -> normalize(row.getTagTitle())));
+            int size = sorted.size();
+            String[] titles = new String[size];
+            String[] keys = new String[size];
+            long[] popularity = new long[size];
+            Map<String, List<Integer>> grams = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                titles[i] = sorted.get(i).getTagTitle();
+                keys[i] = normalize(titles[i]);
+                popularity[i] = sorted.get(i).getPopularity();
+                for (String gram : grams(keys[i])) {
+                    grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+                }
+            }
+
+            Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+            grams.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+            return new Index(titles, keys, popularity, postings);
+        }
+
+        private static Set<String> grams(String key) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i < key.length(); i++) {
+                grams.add(key.substring(i, i + 1));
+                if (i + 2 <= key.length()) {
+                    grams.add(key.substring(i, i + 2));
+                }
+            }
+            return grams;
+        }
+
+        void collect(String q, Consumer<Candidate> consumer) {
+            // 접두어: 정렬된 keys 에서 q 가 들어갈 자리부터 q 로 시작하는 동안
+            int from = Arrays.binarySearch(keys, q);
+            for (int i = from < 0 ? -from - 1 : from; i < keys.length && keys[i].startsWith(q); i++) {
+                consumer.accept(new Candidate(titles[i], true, popularity[i]));
+            }
+
+            // 중간 포함: q 의 gram 중 가장 짧은 목록만 훑고 실제로 포함되는지 확인한다
+            int[] smallest = postings.getOrDefault(q.substring(0, Math.min(2, q.length())), NONE);
+            for (int i = 1; i + 2 <= q.length(); i++) {
+                int[] ids = postings.getOrDefault(q.substring(i, i + 2), NONE);
+                if (ids.length < smallest.length) {
+                    smallest = ids;
+                }
+            }
+            for (int id : smallest) {
+                if (!keys[id].startsWith(q) && keys[id].contains(q)) {
+                    consumer.accept(new Candidate(titles[id], false, popularity[id]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.studyolle.zone;
+
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Zone;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 클래스패스의 지역 CSV("도시,한글이름,도[,위도,경도]") 를 한 줄씩 읽어서 일정 개수마다 한 트랜잭션으로 넣거나 고친다.
+ * 시작을 막지 않도록 애플리케이션이 뜬 뒤 별도 스레드에서 돌고, 끝나면 {@link ZoneRegistry} 를 연다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZoneDataLoader {
+
+    static final String ZONE_DATA = "zones_kr.csv";
+
+    private final ZoneRepository zoneRepository;
+    private final ZoneRegistry zoneRegistry;
+    private final PlatformTransactionManager transactionManager;
+    private final AppProperties appProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!appProperties.getZone().isLoadAsync()) {
+            loadAndOpenRegistry();
+            return;
+        }
+        Thread loader = new Thread(this::loadAndOpenRegistry, "zone-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadAndOpenRegistry() {
+        try {
+            load(new ClassPathResource(ZONE_DATA));
+        } catch (Exception e) {
+            log.error("failed to load zone data from {}", ZONE_DATA, e);
+        } finally {
+            zoneRegistry.markLoaded();
+        }
+    }
+
+    // getFile() 은 jar 안에서 동작하지 않으므로 스트림으로 읽는다
+    public Result load(Resource resource) throws IOException {
+        long start = System.nanoTime();
+        int batchSize = appProperties.getZone().getLoadBatchSize();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Result result = new Result();
+
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<Zone> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Zone zone = parse(line);
+                if (zone == null) {
+                    continue;
+                }
+                batch.add(zone);
+                if (batch.size() >= batchSize) {
+                    transactionTemplate.executeWithoutResult(status -> upsert(batch, result));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> upsert(batch, result));
+            }
+        }
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("zone data loaded from {}: {} rows, {} inserted, {} updated in {} ms",
+            resource.getFilename(), result.rows, result.inserted, result.updated, result.elapsedMillis);
+        return result;
+    }
+
+    private void upsert(List<Zone> batch, Result result) {
+        Set<String> cities = batch.stream().map(Zone::getCity).collect(Collectors.toSet());
+        Map<String, Zone> existing = new HashMap<>();
+        for (Zone zone : zoneRepository.findByCityIn(cities)) {
+            existing.putIfAbsent(key(zone), zone);
+        }
+
+        List<Zone> newZones = new ArrayList<>();
+        for (Zone zone : batch) {
+            result.rows++;
+            Zone found = existing.putIfAbsent(key(zone), zone);
+            if (found == null) {
+                newZones.add(zone);
+            } else if (!sameValues(found, zone)) {
+                found.setLocalNameOfCity(zone.getLocalNameOfCity());
+                found.setLatitude(zone.getLatitude());
+                found.setLongitude(zone.getLongitude());
+                result.updated++;
+            }
+        }
+        zoneRepository.saveAll(newZones);
+        result.inserted += newZones.size();
+    }
+
+    private static Zone parse(String line) {
+        String[] split = line.split(",");
+        if (split.length < 3 || split[0].isBlank()) {
+            if (!line.isBlank()) {
+                log.warn("skipping malformed zone line: {}", line);
+            }
+            return null;
+        }
+        Zone zone = Zone.builder().city(split[0].strip()).localNameOfCity(split[1].strip())
+            .province(split[2].strip()).build();
+        if (split.length >= 5) {
+            try {
+                Double latitude = Double.valueOf(split[3].strip());
+                Double longitude = Double.valueOf(split[4].strip());
+                zone.setLatitude(latitude);
+                zone.setLongitude(longitude);
+            } catch (NumberFormatException e) {
+                log.warn("ignoring malformed coordinates: {}", line);
+            }
+        }
+        return zone;
+    }
+
+    private static boolean sameValues(Zone found, Zone zone) {
+        return found.getLocalNameOfCity().equals(zone.getLocalNameOfCity())
+            && Objects.equals(found.getLatitude(), zone.getLatitude())
+            && Objects.equals(found.getLongitude(), zone.getLongitude());
+    }
+
+    private static String key(Zone zone) {
+        return zone.getCity() + "/" + zone.getProvince();
+    }
+
+    @Getter
+    public static class Result {
+
+        private int rows;
+        private int inserted;
+        private int updated;
+        private long elapsedMillis;
+    }
+}
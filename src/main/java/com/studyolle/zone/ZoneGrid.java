@@ -0,0 +1,95 @@
+package com.studyolle.zone;
+
+import com.studyolle.domain.Zone;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 좌표가 있는 지역을 위도/경도 격자 칸에 나눠 담아 두고, 반경 안의 칸만 훑어서 거리를 잰다.
+ * 만든 뒤에는 바뀌지 않는다.
+ */
+class ZoneGrid {
+
+    static final double CELL_DEGREES = 0.25;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final Map<Long, Zone[]> cells;
+
+    private ZoneGrid(Map<Long, Zone[]> cells) {
+        this.cells = cells;
+    }
+
+    static ZoneGrid build(Collection<Zone> zones) {
+        Map<Long, List<Zone>> grouped = new HashMap<>();
+        for (Zone zone : zones) {
+            if (zone.hasLocation()) {
+                grouped.computeIfAbsent(key(cell(zone.getLatitude()), cell(zone.getLongitude())),
+                    k -> new ArrayList<>()).add(zone);
+            }
+        }
+
+        Map<Long, Zone[]> cells = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, list) -> cells.put(key, list.toArray(new Zone[0])));
+        return new ZoneGrid(cells);
+    }
+
+    /**
+     * 좌표에서 radiusKm 안에 있는 지역의 id 와 거리(km).
+     */
+    Map<Long, Double> findWithin(double latitude, double longitude, double radiusKm) {
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        double longitudeSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        int minRow = cell(latitude - latitudeSpan);
+        int maxRow = cell(latitude + latitudeSpan);
+        int minColumn = cell(longitude - longitudeSpan);
+        int maxColumn = cell(longitude + longitudeSpan);
+
+        Map<Long, Double> result = new HashMap<>();
+        // 반경이 넓으면 빈 칸을 세는 것보다 있는 칸을 다 보는 편이 빠르다
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > cells.size()) {
+            cells.values().forEach(zones -> collect(zones, latitude, longitude, radiusKm, result));
+            return result;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Zone[] zones = cells.get(key(row, column));
+                if (zones != null) {
+                    collect(zones, latitude, longitude, radiusKm, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void collect(Zone[] zones, double latitude, double longitude, double radiusKm,
+                                Map<Long, Double> result) {
+        for (Zone zone : zones) {
+            double distance = distanceKm(latitude, longitude, zone.getLatitude(), zone.getLongitude());
+            if (distance <= radiusKm) {
+                result.put(zone.getId(), distance);
+            }
+        }
+    }
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(dLatitude / 2), 2)
+            + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+            * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
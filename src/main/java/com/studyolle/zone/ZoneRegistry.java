@@ -0,0 +1,150 @@
+package com.studyolle.zone;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.Zone;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 지역 목록은 실행 중에 바뀌지 않으므로 시작할 때 한 번 읽어 두고 메모리에서 찾는다.
+ * 돌려주는 Zone 은 준영속 상태이므로 id 로만 쓰고 연관관계를 따라가지 않는다.
+ * {@link ZoneDataLoader} 가 데이터를 다 넣기 전까지는 조회가 잠시 기다린다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZoneRegistry {
+
+    private final ZoneRepository zoneRepository;
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * "도시(한글이름)/도" 형태의 표시 이름으로 찾는다. 없으면 null.
+     */
+    public Zone findByDisplayName(String displayName) {
+        return displayName == null ? null : getSnapshot().byDisplayName.get(displayName);
+    }
+
+    public Zone findByCityAndProvince(String city, String province) {
+        return getSnapshot().byCityAndProvince.get(cityAndProvince(city, province));
+    }
+
+    public Zone findById(Long id) {
+        return id == null ? null : getSnapshot().byId.get(id);
+    }
+
+    public List<Zone> getAll() {
+        return getSnapshot().all;
+    }
+
+    /**
+     * 좌표에서 radiusKm 안에 있는 지역의 id 와 거리(km). 좌표가 없는 지역은 빠진다.
+     */
+    public Map<Long, Double> findWithin(double latitude, double longitude, double radiusKm) {
+        return getSnapshot().grid.findWithin(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Tagify 에 그대로 넘기는 전체 지역 표시 이름 JSON 배열.
+     */
+    public String getWhitelistJson() {
+        return getSnapshot().whitelistJson;
+    }
+
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
+    }
+
+    /**
+     * 지역 데이터를 새로 넣었을 때 다시 읽는다. 시작 시 적재가 끝나지 않았으면 먼저 기다린다.
+     */
+    public void refresh() {
+        awaitLoaded();
+        rebuild();
+    }
+
+    /**
+     * 시작 시 적재가 끝났을 때 {@link ZoneDataLoader} 가 부른다. 실패했더라도 DB 에 있는 만큼으로 연다.
+     */
+    void markLoaded() {
+        try {
+            rebuild();
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void awaitLoaded() {
+        try {
+            if (!loaded.await(appProperties.getZone().getReadyTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("zone data is still loading, serving what is in the database");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void rebuild() {
+        List<Zone> zones = zoneRepository.findAll();
+        Map<String, Zone> byDisplayName = new HashMap<>(zones.size() * 2);
+        Map<String, Zone> byCityAndProvince = new HashMap<>(zones.size() * 2);
+        Map<Long, Zone> byId = new HashMap<>(zones.size() * 2);
+        for (Zone zone : zones) {
+            byDisplayName.put(zone.toString(), zone);
+            byCityAndProvince.put(cityAndProvince(zone.getCity(), zone.getProvince()), zone);
+            byId.put(zone.getId(), zone);
+        }
+
+        List<String> displayNames = zones.stream().map(Zone::toString).collect(Collectors.toList());
+        try {
+            snapshot = new Snapshot(List.copyOf(zones), Map.copyOf(byDisplayName),
+                Map.copyOf(byCityAndProvince), Map.copyOf(byId), ZoneGrid.build(zones),
+                objectMapper.writeValueAsString(displayNames));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        log.debug("zone registry loaded with {} zones", zones.size());
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            awaitLoaded();
+            current = snapshot;
+        }
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static String cityAndProvince(String city, String province) {
+        return city + "/" + province;
+    }
+
+    @RequiredArgsConstructor
+    private static class Snapshot {
+
+        private final List<Zone> all;
+        private final Map<String, Zone> byDisplayName;
+        private final Map<String, Zone> byCityAndProvince;
+        private final Map<Long, Zone> byId;
+        private final ZoneGrid grid;
+        private final String whitelistJson;
+    }
+}
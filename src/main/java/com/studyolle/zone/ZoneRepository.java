@@ -1,9 +1,13 @@
 package com.studyolle.zone;
 
 import com.studyolle.domain.Zone;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface ZoneRepository extends JpaRepository<Zone,Long> {
 
     Zone findByCityAndProvince(String cityName, String provinceName);
+
+    List<Zone> findByCityIn(Collection<String> cities);
 }
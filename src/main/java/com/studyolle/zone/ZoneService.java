@@ -1,15 +1,7 @@
 package com.studyolle.zone;
 
 import com.studyolle.domain.Zone;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.List;
-import java.util.stream.Collectors;
-import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,22 +10,13 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ZoneService {
 
-    private final ZoneRepository zoneRepository;
+    private final ZoneRegistry zoneRegistry;
 
-    @PostConstruct
-    public void initZoneData() throws IOException {
-        if( zoneRepository.count() == 0) {
-            Resource resource = new ClassPathResource("zones_kr.csv");
-
-            List<Zone> zoneList = Files.readAllLines(resource.getFile().toPath(),
-                    StandardCharsets.UTF_8).stream()
-                .map(line -> {
-                    String[] split = line.split(",");
-                    return Zone.builder().city(split[0]).localNameOfCity(split[1])
-                        .province(split[2]).build();
-                }).collect(Collectors.toList());
-            zoneRepository.saveAll(zoneList);
-        }
+    /**
+     * "도시(한글이름)/도" 형태의 표시 이름으로 지역을 찾는다. 형식이 맞지 않거나 없으면 null.
+     */
+    public Zone findByDisplayName(String zoneName) {
+        return zoneRegistry.findByDisplayName(zoneName);
     }
 
 }
@@ -0,0 +1,17 @@
+package com.studyolle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 스케줄러를 끄고 지역 데이터는 시작할 때 다 넣은 뒤에 테스트를 시작한다.
+ * outbox 확인이나 지역 적재 쿼리가 테스트 도중에 끼어들지 않는다.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@TestPropertySource(properties = {"app.scheduling.enabled=false", "app.zone.load-async=false"})
+public @interface WithoutBackgroundJobs {
+}
@@ -1,8 +1,9 @@
 package com.studyolle.account;
 
 import com.studyolle.domain.Account;
-import com.studyolle.mail.EmailMessage;
+import com.studyolle.domain.OutboxEmail;
 import com.studyolle.mail.EmailService;
+import com.studyolle.mail.OutboxEmailRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.BDDMockito.then;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
@@ -37,6 +37,9 @@ class AccountControllerTest {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
     @MockBean
     EmailService emailService;
 
@@ -79,7 +82,9 @@ class AccountControllerTest {
        assertNotNull(account);
        assertNotEquals(account.getPassword(),"123324445");
        assertNotNull(account.getEmailCheckToken());
-       then(emailService).should().sendEmail(any(EmailMessage.class));
+       // 메일은 같은 트랜잭션 안에서 outbox 에 쌓이고 바로 보내지 않는다
+       assertTrue(outboxEmailRepository.findAll().stream()
+           .anyMatch(e -> e.getRecipient().equals("email@email.com") && e.getStatus() == OutboxEmail.Status.PENDING));
     }
 
     @DisplayName("인증 메일 확인 - 입력값 오류")
@@ -115,4 +120,22 @@ class AccountControllerTest {
             .andExpect(view().name("account/checked-email"))
             .andExpect(authenticated().withUsername("lhr"));
     }
-}
\ No newline at end of file
+
+    @DisplayName("이메일 로그인 - 요청이 너무 많으면 DB 조회 없이 거절")
+    @Test
+    void sendEmailLoginLink_rate_limited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/email-login")
+                    .param("email", "limited@email.com")
+                    .with(csrf()))
+                .andExpect(model().attribute("error", "유효한 이메일 주소가 아닙니다"));
+        }
+
+        mockMvc.perform(post("/email-login")
+                .param("email", "Limited@email.com")
+                .with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(view().name("account/email-login"))
+            .andExpect(model().attribute("error", "요청이 너무 많습니다. 잠시 후 다시 시도하세요"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.studyolle.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.config.AppProperties;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AccountExistenceFilterTest {
+
+    @Autowired AccountExistenceFilter accountExistenceFilter;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+    }
+
+    @DisplayName("가입한 이메일과 닉네임은 있음, 없는 값은 DB 조회 없이 없음")
+    @Test
+    void exists() {
+        signUp("filter", "filter@email.com");
+        long skipped = accountExistenceFilter.getSkippedQueryCount();
+
+        assertTrue(accountExistenceFilter.existsByEmail("filter@email.com"));
+        assertTrue(accountExistenceFilter.existsByNickname("filter"));
+        assertFalse(accountExistenceFilter.existsByEmail("nobody@email.com"));
+        assertFalse(accountExistenceFilter.existsByNickname("nobody"));
+        assertEquals(skipped + 2, accountExistenceFilter.getSkippedQueryCount());
+    }
+
+    @DisplayName("스냅샷을 읽고 그 뒤에 가입한 계정만 DB 에서 채움")
+    @Test
+    void snapshot(@TempDir Path dir) {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setAccountFilterSnapshot(dir.resolve("account-filter.bin").toString());
+
+        signUp("before", "before@email.com");
+        AccountExistenceFilter first = new AccountExistenceFilter(accountRepository, appProperties);
+        first.build();
+        first.saveSnapshot();
+        assertTrue(Files.exists(dir.resolve("account-filter.bin")));
+
+        signUp("after", "after@email.com");
+        AccountExistenceFilter second = new AccountExistenceFilter(accountRepository, appProperties);
+        second.build();
+
+        assertFalse(Files.exists(dir.resolve("account-filter.bin")));
+        assertTrue(second.existsByNickname("before"));
+        assertTrue(second.existsByNickname("after"));
+        assertFalse(second.existsByNickname("nobody"));
+    }
+
+    private void signUp(String nickname, String email) {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname(nickname);
+        signUpForm.setEmail(email);
+        signUpForm.setPassword("123456789");
+        accountService.processNewAccount(signUpForm);
+    }
+}
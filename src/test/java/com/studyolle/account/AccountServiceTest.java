@@ -0,0 +1,82 @@
+package com.studyolle.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Tag;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.TagRepository;
+import com.studyolle.zone.ZoneRepository;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WithoutBackgroundJobs
+class AccountServiceTest {
+
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TagRepository tagRepository;
+    @Autowired ZoneRepository zoneRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    Account account;
+    Tag tag;
+    Zone zone;
+    Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        account = accountRepository.save(Account.builder().nickname("lhr").email("lhr@email.com").build());
+        tag = tagRepository.save(Tag.builder().tagTitle("spring").build());
+        zone = zoneRepository.save(Zone.builder().city("test").localNameOfCity("테스트시").province("테스트주").build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("태그 추가/삭제는 조인 테이블에 쿼리 하나씩, 컬렉션은 읽지 않음")
+    @Test
+    void addTag_removeTag_one_statement() {
+        accountService.addTag(account, tag);
+        accountService.addTag(account, tag);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(1, countRows("account_tags"));
+
+        statistics.clear();
+        accountService.removeTag(account, tag);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, countRows("account_tags"));
+    }
+
+    @DisplayName("지역 추가/삭제는 조인 테이블에 쿼리 하나씩, 컬렉션은 읽지 않음")
+    @Test
+    void addZone_removeZone_one_statement() {
+        accountService.addZone(account, zone);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+
+        accountService.removeZone(account, zone);
+        accountService.removeZone(account, zone);
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, countRows("account_zones"));
+    }
+
+    private long countRows(String table) {
+        return ((Number) entityManager.createNativeQuery("select count(*) from " + table).getSingleResult())
+            .longValue();
+    }
+}
@@ -0,0 +1,74 @@
+package com.studyolle.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Date;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+
+@SpringBootTest
+class PurgingTokenRepositoryTest {
+
+    @Autowired PurgingTokenRepository tokenRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from persistent_logins");
+    }
+
+    @DisplayName("토큰 값이 바뀌면 바로 DB에 반영")
+    @Test
+    void updateToken_rotation_is_written_through() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("lhr", "series", "token", new Date()));
+
+        tokenRepository.updateToken("series", "new-token", new Date());
+
+        assertEquals("new-token", dbToken("series"));
+        assertEquals("new-token", tokenRepository.getTokenForSeries("series").getTokenValue());
+    }
+
+    @DisplayName("다른 서버가 바꾼 토큰도 바로 읽음")
+    @Test
+    void getTokenForSeries_reads_rotation_from_other_node() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("lhr", "series", "token", new Date()));
+        tokenRepository.getTokenForSeries("series");
+
+        jdbcTemplate.update("update persistent_logins set token = ? where series = ?", "rotated", "series");
+
+        assertEquals("rotated", tokenRepository.getTokenForSeries("series").getTokenValue());
+    }
+
+    @DisplayName("사용자 토큰 삭제")
+    @Test
+    void removeUserTokens() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("lhr", "series", "token", new Date()));
+
+        tokenRepository.removeUserTokens("lhr");
+
+        assertNull(tokenRepository.getTokenForSeries("series"));
+    }
+
+    @DisplayName("만료된 토큰 정리")
+    @Test
+    void purgeExpiredTokens() {
+        Date expired = new Date(System.currentTimeMillis() - 15L * 24 * 60 * 60 * 1000);
+        tokenRepository.createNewToken(new PersistentRememberMeToken("lhr", "old", "token", expired));
+        tokenRepository.createNewToken(new PersistentRememberMeToken("lhr", "new", "token", new Date()));
+
+        tokenRepository.purgeExpiredTokens();
+
+        assertNull(tokenRepository.getTokenForSeries("old"));
+        assertEquals("token", dbToken("new"));
+    }
+
+    private String dbToken(String series) {
+        return jdbcTemplate.queryForObject("select token from persistent_logins where series = ?", String.class, series);
+    }
+}
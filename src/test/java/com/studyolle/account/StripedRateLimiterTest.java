@@ -0,0 +1,43 @@
+package com.studyolle.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StripedRateLimiterTest {
+
+    AtomicLong now = new AtomicLong();
+
+    @DisplayName("버킷이 비면 거절하고 시간이 지나면 다시 허용")
+    @Test
+    void tryAcquire_refills() {
+        StripedRateLimiter limiter = new StripedRateLimiter(2, Duration.ofMinutes(2), 100, now::get);
+
+        assertTrue(limiter.tryAcquire("lhr@email.com"));
+        assertTrue(limiter.tryAcquire("lhr@email.com"));
+        assertFalse(limiter.tryAcquire("lhr@email.com"));
+        assertTrue(limiter.tryAcquire("other@email.com"));
+        assertEquals(1, limiter.getRejectedCount());
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertTrue(limiter.tryAcquire("lhr@email.com"));
+        assertFalse(limiter.tryAcquire("lhr@email.com"));
+    }
+
+    @DisplayName("기억하는 키 개수가 제한됨")
+    @Test
+    void tryAcquire_bounded() {
+        StripedRateLimiter limiter = new StripedRateLimiter(1, Duration.ofHours(1), 160, now::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("user" + i + "@email.com");
+        }
+
+        assertTrue(limiter.size() <= 160);
+    }
+}
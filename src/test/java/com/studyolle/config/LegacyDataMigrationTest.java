@@ -0,0 +1,107 @@
+package com.studyolle.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.account.AccountRepository;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.image.ImageStore;
+import com.studyolle.study.StudyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 컬럼을 더하고 지우는 DDL 은 롤백되지 않으므로 트랜잭션 없이 돌리고 직접 지운다
+@SpringBootTest
+class LegacyDataMigrationTest {
+
+    @Autowired LegacyDataMigration legacyDataMigration;
+    @Autowired StudyRepository studyRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    static final String PNG_DATA_URL = "data:image/png;base64,"
+        + "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    @Autowired AccountRepository accountRepository;
+    @Autowired ImageStore imageStore;
+
+    Long studyId;
+
+    @AfterEach
+    void afterEach() {
+        if (studyId != null) {
+            studyRepository.deleteById(studyId);
+        }
+        accountRepository.deleteAll();
+        jdbcTemplate.execute("alter table study drop column if exists full_description");
+        jdbcTemplate.execute("alter table study drop column if exists image");
+        jdbcTemplate.execute("alter table account drop column if exists profile_image");
+    }
+
+    @DisplayName("예전 study.full_description 은 study_content 로 옮기고 옛 컬럼은 비운다")
+    @Test
+    void migrateStudyDescriptions() {
+        Study study = new Study();
+        study.setPath("legacy-study");
+        study.setTitle("옛 스터디");
+        study.setShortDescription("짧은 소개");
+        studyId = studyRepository.save(study).getId();
+        jdbcTemplate.execute("alter table study add column full_description clob");
+        jdbcTemplate.update("update study set full_description = ? where id = ?", "옛 긴 소개", studyId);
+
+        assertEquals(1, legacyDataMigration.migrateStudyDescriptions());
+        assertEquals(0, legacyDataMigration.migrateStudyDescriptions());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            assertEquals("옛 긴 소개", studyRepository.findById(studyId).orElseThrow().getFullDescription()));
+        assertNull(jdbcTemplate.queryForObject("select full_description from study where id = ?", String.class, studyId));
+    }
+
+    @DisplayName("시퀀스가 이미 있는 id 보다 뒤처져 있으면 max(id)+1 로 옮긴다")
+    @Test
+    void migrateSequences() {
+        jdbcTemplate.update("insert into tag (id, tag_title) values (?, ?)", 1_000_000L, "legacy-tag");
+        try {
+            assertEquals(1, legacyDataMigration.migrateSequences());
+            assertEquals(1_000_001L, jdbcTemplate.queryForObject("select next value for tag_seq", Long.class));
+            assertEquals(0, legacyDataMigration.migrateSequences());
+        } finally {
+            jdbcTemplate.update("delete from tag where id = ?", 1_000_000L);
+        }
+    }
+
+    @DisplayName("예전 data URL 이미지는 이미지 저장소로 옮겨 해시를 채우고 옛 컬럼을 지운다")
+    @Test
+    void migrateImages() {
+        Long accountId = accountRepository.save(Account.builder().nickname("legacy").email("legacy@email.com")
+            .password("12345678").build()).getId();
+        Long brokenId = accountRepository.save(Account.builder().nickname("broken").email("broken@email.com")
+            .password("12345678").build()).getId();
+        jdbcTemplate.execute("alter table account add column profile_image clob");
+        jdbcTemplate.update("update account set profile_image = ? where id = ?", PNG_DATA_URL, accountId);
+        jdbcTemplate.update("update account set profile_image = ? where id = ?", "data:text/html;base64,PGI+", brokenId);
+
+        assertEquals(1, legacyDataMigration.migrateImages());
+
+        String hash = accountRepository.findById(accountId).orElseThrow().getProfileImageHash();
+        assertNotNull(hash);
+        assertTrue(imageStore.contains(hash));
+        assertNull(accountRepository.findById(brokenId).orElseThrow().getProfileImageHash());
+        assertEquals(0, legacyDataMigration.migrateImages()); // 옛 컬럼이 지워졌다
+    }
+
+    @DisplayName("옛 컬럼이 없으면 아무것도 하지 않는다")
+    @Test
+    void migrateStudyDescriptions_without_legacy_column() {
+        assertEquals(0, legacyDataMigration.migrateStudyDescriptions());
+    }
+}
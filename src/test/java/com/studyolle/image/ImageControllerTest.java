@@ -0,0 +1,99 @@
+package com.studyolle.image;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ImageControllerTest {
+
+    // 1x1 투명 PNG
+    public static final String PNG_DATA_URL = "data:image/png;base64,"
+        + "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ImageService imageService;
+    @Autowired ThumbnailService thumbnailService;
+
+    static String pngDataUrl(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    @DisplayName("이미지 조회 - 캐시 헤더와 ETag")
+    @Test
+    void viewImage() throws Exception {
+        String hash = imageService.storeDataUrl(PNG_DATA_URL);
+
+        mockMvc.perform(get("/images/" + hash))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("image/png"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @DisplayName("이미지 조회 - ETag 일치하면 304")
+    @Test
+    void viewImage_not_modified() throws Exception {
+        String hash = imageService.storeDataUrl(PNG_DATA_URL);
+
+        mockMvc.perform(get("/images/" + hash)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @DisplayName("이미지 조회 - 없는 해시")
+    @Test
+    void viewImage_not_found() throws Exception {
+        mockMvc.perform(get("/images/" + "0".repeat(64)))
+            .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("썸네일 생성 후 조회")
+    @Test
+    void viewThumbnail() throws Exception {
+        String hash = imageService.storeDataUrl(pngDataUrl(300, 300));
+        thumbnailService.generate(hash);
+
+        byte[] bytes = mockMvc.perform(get("/images/" + hash + "/64"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "-64\""))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(64, ImageIO.read(new ByteArrayInputStream(bytes)).getWidth());
+    }
+
+    @DisplayName("썸네일 조회 - 지원하지 않는 크기")
+    @Test
+    void viewThumbnail_wrong_size() throws Exception {
+        String hash = imageService.storeDataUrl(PNG_DATA_URL);
+
+        mockMvc.perform(get("/images/" + hash + "/100"))
+            .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("허용하지 않는 이미지 형식")
+    @Test
+    void storeDataUrl_wrong_type() {
+        assertThrows(IllegalArgumentException.class,
+            () -> imageService.storeDataUrl("data:image/svg+xml;base64,PHN2Zy8+"));
+    }
+}
@@ -0,0 +1,185 @@
+package com.studyolle.mail;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.config.AppProperties;
+import com.studyolle.domain.OutboxEmail;
+import com.studyolle.domain.OutboxEmail.Status;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@SpringBootTest
+@WithoutBackgroundJobs
+class EmailDispatcherTest {
+
+    @Autowired EmailDispatcher emailDispatcher;
+    @Autowired EmailOutboxService emailOutboxService;
+    @Autowired OutboxEmailRepository outboxEmailRepository;
+    @Autowired AppProperties appProperties;
+    // sendEmails 는 기본 구현 그대로 sendEmail 을 부르게 둔다
+    @MockBean(answer = Answers.CALLS_REAL_METHODS) EmailService emailService;
+
+    @AfterEach
+    void afterEach() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    @DisplayName("outbox 에 쌓인 메일 발송")
+    @Test
+    void dispatch() {
+        Long id = emailOutboxService.enqueue(message()).getId();
+        assertEquals(1, emailDispatcher.getQueueDepth());
+
+        assertEquals(1, emailDispatcher.dispatch());
+
+        then(emailService).should().sendEmail(any(EmailMessage.class));
+        OutboxEmail sent = outboxEmailRepository.findById(id).orElseThrow();
+        assertEquals(Status.SENT, sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertEquals(0, emailDispatcher.getQueueDepth());
+        assertEquals(0, emailDispatcher.dispatch());
+    }
+
+    @DisplayName("보내는 동안에는 트랜잭션 밖이고, 임대 중인 메일은 다른 발송이 가져가지 않음")
+    @Test
+    void dispatch_sends_outside_transaction() {
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        AtomicInteger concurrentlyDispatched = new AtomicInteger(-1);
+        willAnswer(invocation -> {
+            inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            concurrentlyDispatched.set(emailDispatcher.dispatch());
+            return null;
+        }).given(emailService).sendEmail(any());
+        Long id = emailOutboxService.enqueue(message()).getId();
+
+        assertEquals(1, emailDispatcher.dispatch());
+
+        assertFalse(inTransaction.get());
+        assertEquals(0, concurrentlyDispatched.get());
+        assertEquals(Status.SENT, outboxEmailRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @DisplayName("한 묶음에서 실패한 메일만 다시 시도")
+    @Test
+    void dispatch_partial_failure() {
+        willThrow(new IllegalStateException("mailbox full")).given(emailService)
+            .sendEmail(argThat(message -> message.getTo().equals("full@email.com")));
+        Long sent = emailOutboxService.enqueue(message()).getId();
+        Long failed = emailOutboxService.enqueue(EmailMessage.builder()
+            .to("full@email.com").subject("subject").message("message").build()).getId();
+
+        assertEquals(2, emailDispatcher.dispatch());
+
+        assertEquals(Status.SENT, outboxEmailRepository.findById(sent).orElseThrow().getStatus());
+        OutboxEmail retry = outboxEmailRepository.findById(failed).orElseThrow();
+        assertEquals(Status.PENDING, retry.getStatus());
+        assertEquals("mailbox full", retry.getLastError());
+    }
+
+    @DisplayName("내용이 같은 메일이라도 실패한 메일만 다시 시도")
+    @Test
+    void dispatch_identical_messages_are_recorded_separately() {
+        AtomicInteger calls = new AtomicInteger();
+        willAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("mailbox full");
+            }
+            return null;
+        }).given(emailService).sendEmail(any());
+        Long first = emailOutboxService.enqueue(message()).getId();
+        Long second = emailOutboxService.enqueue(message()).getId();
+
+        assertEquals(2, emailDispatcher.dispatch());
+
+        assertEquals(Status.SENT, outboxEmailRepository.findById(first).orElseThrow().getStatus());
+        OutboxEmail retry = outboxEmailRepository.findById(second).orElseThrow();
+        assertEquals(Status.PENDING, retry.getStatus());
+        assertEquals("mailbox full", retry.getLastError());
+    }
+
+    @DisplayName("발송 실패시 나중에 다시 시도")
+    @Test
+    void dispatch_failure_backs_off() {
+        willThrow(new IllegalStateException("smtp down")).given(emailService).sendEmail(any());
+        Long id = emailOutboxService.enqueue(message()).getId();
+
+        emailDispatcher.dispatch();
+
+        OutboxEmail failed = outboxEmailRepository.findById(id).orElseThrow();
+        assertEquals(Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertEquals("smtp down", failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(0, emailDispatcher.dispatch());
+    }
+
+    @DisplayName("최대 횟수만큼 실패하면 더 보내지 않음")
+    @Test
+    void dispatch_dead_letter() {
+        willThrow(new IllegalStateException("smtp down")).given(emailService).sendEmail(any());
+        Long id = emailOutboxService.enqueue(message()).getId();
+
+        for (int i = 0; i < EmailDispatcher.MAX_ATTEMPTS; i++) {
+            makeDue(id);
+            emailDispatcher.dispatch();
+        }
+
+        OutboxEmail dead = outboxEmailRepository.findById(id).orElseThrow();
+        assertEquals(Status.DEAD, dead.getStatus());
+        assertEquals(EmailDispatcher.MAX_ATTEMPTS, dead.getAttempts());
+        assertEquals(1, emailDispatcher.getDeadLetterCount());
+        assertEquals(0, emailDispatcher.getQueueDepth());
+    }
+
+    @DisplayName("보관 기간이 지난 보낸 메일과 포기한 메일 삭제")
+    @Test
+    void purge() {
+        LocalDateTime old = LocalDateTime.now().minusDays(appProperties.getMail().getRetentionDays() + 1);
+        Long oldSent = save(Status.SENT, old);
+        Long oldDead = save(Status.DEAD, old);
+        Long oldPending = save(Status.PENDING, old);
+        Long recentSent = save(Status.SENT, LocalDateTime.now());
+
+        emailDispatcher.purge();
+
+        assertFalse(outboxEmailRepository.existsById(oldSent));
+        assertFalse(outboxEmailRepository.existsById(oldDead));
+        assertTrue(outboxEmailRepository.existsById(oldPending));
+        assertTrue(outboxEmailRepository.existsById(recentSent));
+    }
+
+    private Long save(Status status, LocalDateTime createdAt) {
+        OutboxEmail outboxEmail = emailOutboxService.enqueue(message());
+        outboxEmail.setStatus(status);
+        outboxEmail.setCreatedAt(createdAt);
+        return outboxEmailRepository.save(outboxEmail).getId();
+    }
+
+    private void makeDue(Long id) {
+        OutboxEmail outboxEmail = outboxEmailRepository.findById(id).orElseThrow();
+        outboxEmail.setNextAttemptAt(LocalDateTime.now());
+        outboxEmailRepository.save(outboxEmail);
+    }
+
+    private EmailMessage message() {
+        return EmailMessage.builder().to("lhr@email.com").subject("subject").message("message").build();
+    }
+}
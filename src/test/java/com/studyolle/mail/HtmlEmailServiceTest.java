@@ -0,0 +1,165 @@
+package com.studyolle.mail;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.config.AppProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Provider;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.URLName;
+import javax.mail.internet.InternetAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// SMTP 서버 대신 보내는 동안 잠깐 기다리며 도메인별 동시 발송 수를 세는 Transport 를 끼운다
+class HtmlEmailServiceTest {
+
+    static final int POOL_SIZE = 4;
+    static final int PER_DOMAIN = 2;
+
+    ThreadPoolTaskExecutor executor;
+    SmtpTransportPool transportPool;
+    HtmlEmailService htmlEmailService;
+
+    @BeforeEach
+    void beforeEach() {
+        FakeTransport.reset();
+        Session session = Session.getInstance(new Properties());
+        session.addProvider(new Provider(Provider.Type.TRANSPORT, "fake", FakeTransport.class.getName(), "test", "1"));
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setSession(session);
+        mailSender.setProtocol("fake");
+        mailSender.setHost("localhost");
+
+        AppProperties appProperties = new AppProperties();
+        appProperties.getMail().setTransportPoolSize(POOL_SIZE);
+        appProperties.getMail().setPerDomainConcurrency(PER_DOMAIN);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.initialize();
+        transportPool = new SmtpTransportPool(mailSender, appProperties);
+        htmlEmailService = new HtmlEmailService(mailSender, transportPool, executor, appProperties);
+    }
+
+    @AfterEach
+    void afterEach() {
+        transportPool.close();
+        executor.shutdown();
+    }
+
+    @DisplayName("연결한 Transport 를 다시 쓴다")
+    @Test
+    void reuses_transport() {
+        for (int i = 0; i < 5; i++) {
+            htmlEmailService.sendEmail(message("user" + i + "@a.com"));
+        }
+
+        assertEquals(1, FakeTransport.connects.get());
+        assertEquals(5, FakeTransport.sent.get());
+    }
+
+    @DisplayName("도메인마다 동시에 보내는 수를 넘지 않고, 연결 수는 풀 크기를 넘지 않는다")
+    @Test
+    void limits_concurrency_per_domain() {
+        List<EmailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            messages.add(message("user" + i + "@a.com"));
+            messages.add(message("user" + i + "@b.com"));
+        }
+
+        htmlEmailService.sendEmails(messages);
+
+        assertEquals(24, FakeTransport.sent.get());
+        assertEquals(PER_DOMAIN, FakeTransport.maxActive.get("a.com"));
+        assertEquals(PER_DOMAIN, FakeTransport.maxActive.get("b.com"));
+        assertTrue(FakeTransport.connects.get() <= POOL_SIZE);
+    }
+
+    @DisplayName("실패한 메일만 모아서 알리고, 실패한 연결은 다시 쓰지 않는다")
+    @Test
+    void reports_failed_messages() {
+        FakeTransport.rejected = "bad@a.com";
+        EmailMessage bad = message("bad@a.com");
+
+        MailSendException e = assertThrows(MailSendException.class,
+            () -> htmlEmailService.sendEmails(List.of(message("good@a.com"), bad)));
+
+        assertEquals(1, e.getFailedMessages().size());
+        assertTrue(e.getFailedMessages().containsKey(bad));
+        assertEquals(1, FakeTransport.sent.get());
+
+        int connects = FakeTransport.connects.get();
+        htmlEmailService.sendEmail(message("good@a.com"));
+        htmlEmailService.sendEmail(message("good@a.com"));
+        assertTrue(FakeTransport.connects.get() <= connects + 1);
+        assertEquals(3, FakeTransport.sent.get());
+    }
+
+    private EmailMessage message(String to) {
+        return EmailMessage.builder().to(to).subject("subject").message("message").build();
+    }
+
+    public static class FakeTransport extends Transport {
+
+        static final AtomicInteger connects = new AtomicInteger();
+        static final AtomicInteger sent = new AtomicInteger();
+        static final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        static final Map<String, Integer> maxActive = new ConcurrentHashMap<>();
+        static volatile String rejected;
+
+        public FakeTransport(Session session, URLName urlName) {
+            super(session, urlName);
+        }
+
+        static void reset() {
+            connects.set(0);
+            sent.set(0);
+            active.clear();
+            maxActive.clear();
+            rejected = null;
+        }
+
+        @Override
+        protected boolean protocolConnect(String host, int port, String user, String password) {
+            connects.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            String recipient = ((InternetAddress) addresses[0]).getAddress();
+            String domain = recipient.substring(recipient.indexOf('@') + 1);
+            int now = active.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+            maxActive.merge(domain, now, Math::max);
+            try {
+                Thread.sleep(20);
+                if (recipient.equals(rejected)) {
+                    throw new SendFailedException("rejected " + recipient);
+                }
+                sent.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("interrupted", e);
+            } finally {
+                active.get(domain).decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.studyolle.mail;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.studyolle.config.AppProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+@SpringBootTest
+class LinkMailRendererTest {
+
+    @Autowired LinkMailRenderer linkMailRenderer;
+    @Autowired TemplateEngine templateEngine;
+    @Autowired AppProperties appProperties;
+
+    @DisplayName("템플릿을 매번 렌더링한 결과와 같음")
+    @Test
+    void render_same_as_template_engine() {
+        String link = "/login-by-email?token=abc&email=lhr@email.com";
+
+        assertEquals(process("이메일로 로그인하기", "로그인하려면 아래 링크를 클릭하세요", "lhr", link),
+            linkMailRenderer.render("이메일로 로그인하기", "로그인하려면 아래 링크를 클릭하세요", "lhr", link));
+        assertEquals(process("이메일로 로그인하기", "로그인하려면 아래 링크를 클릭하세요", "<b>'\"", link + "<"),
+            linkMailRenderer.render("이메일로 로그인하기", "로그인하려면 아래 링크를 클릭하세요", "<b>'\"", link + "<"));
+        assertEquals(process("이메일 인증하기", "<script>", "이현", link),
+            linkMailRenderer.render("이메일 인증하기", "<script>", "이현", link));
+    }
+
+    private String process(String linkName, String message, String nickname, String link) {
+        Context context = new Context();
+        context.setVariable("link", link);
+        context.setVariable("nickname", nickname);
+        context.setVariable("linkName", linkName);
+        context.setVariable("message", message);
+        context.setVariable("host", appProperties.getHost());
+        return templateEngine.process(LinkMailRenderer.TEMPLATE, context);
+    }
+}
@@ -1,5 +1,6 @@
 package com.studyolle.main;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
@@ -10,6 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.studyolle.account.AccountRepository;
 import com.studyolle.account.AccountService;
 import com.studyolle.account.SignUpForm;
+import com.studyolle.account.UserAccount;
+import com.studyolle.account.UserAccountCache;
+import com.studyolle.settings.form.Notifications;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,6 +33,8 @@ public class MainControllerTest {
     AccountService accountService;
     @Autowired
     AccountRepository accountRepository;
+    @Autowired
+    UserAccountCache userAccountCache;
 
     @BeforeEach
     void beforeEach() {
@@ -69,6 +75,38 @@ public class MainControllerTest {
             .andExpect(authenticated().withUsername("lhr"));
     }
 
+    @DisplayName("로그인 정보 캐시 - 패스워드 변경시 무효화")
+    @Test
+    void login_after_password_change() throws Exception {
+        accountService.loadUserByUsername("lhr");
+        long hits = userAccountCache.hitCount();
+        accountService.loadUserByUsername("lhr");
+        assertEquals(hits + 1, userAccountCache.hitCount());
+
+        accountService.updatePassword(accountRepository.findByNickname("lhr"), "987654321");
+
+        mockMvc.perform(post("/login")
+                .param("username","lhr")
+                .param("password","987654321")
+                .with(csrf()))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(redirectedUrl("/"))
+            .andExpect(authenticated().withUsername("lhr"));
+    }
+
+    @DisplayName("로그인 정보 캐시 - 알림 설정 변경시 무효화")
+    @Test
+    void userAccount_after_notifications_change() {
+        UserAccount before = (UserAccount) accountService.loadUserByUsername("lhr");
+        Notifications notifications = new Notifications();
+        notifications.setStudyCreatedByWeb(!before.isStudyCreatedByWeb());
+
+        accountService.updateNotifications(accountRepository.findByNickname("lhr"), notifications);
+
+        UserAccount after = (UserAccount) accountService.loadUserByUsername("lhr");
+        assertEquals(!before.isStudyCreatedByWeb(), after.isStudyCreatedByWeb());
+    }
+
     @DisplayName(" 로그인 실패")
     @Test
     void login_fail() throws Exception {
@@ -8,10 +8,19 @@ import com.studyolle.account.SignUpForm;
 import com.studyolle.domain.Account;
 import com.studyolle.domain.Tag;
 import com.studyolle.domain.Zone;
+import com.studyolle.image.ImageControllerTest;
+import com.studyolle.image.ImageStore;
+import com.studyolle.settings.form.BatchUpdateForm;
 import com.studyolle.settings.form.TagForm;
 import com.studyolle.settings.form.ZoneForm;
 import com.studyolle.tag.TagRepository;
+import com.studyolle.tag.TagService;
+import com.studyolle.zone.ZoneRegistry;
 import com.studyolle.zone.ZoneRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -20,6 +29,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,13 +50,18 @@ class SettingsControllerTest {
     @Autowired ObjectMapper objectMapper;
     @Autowired TagRepository tagRepository;
     @Autowired AccountService accountService;
+    @Autowired TagService tagService;
     @Autowired ZoneRepository zoneRepository;
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired ImageStore imageStore;
+    @Autowired EntityManager entityManager;
 
     private Zone testZone = Zone.builder().city("test").localNameOfCity("테스트시").province("테스트주").build();
 
     @BeforeEach
     void beforeEach() {
         zoneRepository.save(testZone);
+        zoneRegistry.refresh();
     }
 
     @AfterEach
@@ -55,6 +70,17 @@ class SettingsControllerTest {
         zoneRepository.deleteAll();
     }
 
+    @AfterTransaction
+    void refreshZoneRegistry() {
+        zoneRegistry.refresh();
+    }
+
+    // 새 태그는 테스트 트랜잭션과 따로 커밋되므로 롤백되지 않는다
+    @AfterTransaction
+    void deleteTags() {
+        tagRepository.deleteAll();
+    }
+
     @WithAccount("lhr")
     @DisplayName("프로필 수정 폼")
     @Test
@@ -82,6 +108,37 @@ class SettingsControllerTest {
         assertEquals(bio,lhr.getBio());
     }
 
+    @WithAccount("lhr")
+    @DisplayName("프로필 이미지 수정하기")
+    @Test
+    void updateProfileImage() throws Exception {
+        mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+                .param("profileImage", ImageControllerTest.PNG_DATA_URL)
+                .with(csrf()))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(redirectedUrl(SettingsController.SETTINGS_PROFILE_URL));
+
+        Account lhr = accountRepository.findByNickname("lhr");
+        assertNotNull(lhr.getProfileImageHash());
+        assertTrue(imageStore.contains(lhr.getProfileImageHash()));
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("프로필 이미지 수정하기 - 형식이 틀린 data URL 은 폼 에러")
+    @Test
+    void updateProfileImage_malformed() throws Exception {
+        mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+                .param("bio", "짧은 소개")
+                .param("profileImage", "data:image/png;base64,***")
+                .with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(view().name(SettingsController.SETTINGS_PROFILE_VIEW_NAME))
+            .andExpect(model().attributeHasFieldErrors("profile", "profileImage"));
+
+        Account lhr = accountRepository.findByNickname("lhr");
+        assertNull(lhr.getBio());
+        assertNull(lhr.getProfileImageHash());
+    }
 
     @WithAccount("lhr")
     @DisplayName("프로필 수정하기 - 입력값 에러")
@@ -150,7 +207,6 @@ class SettingsControllerTest {
         mockMvc.perform(get(SettingsController.SETTINGS_TAGS_URL))
             .andExpect(view().name(SettingsController.SETTINGS_TAGS_VIEW_NAME))
             .andExpect(model().attributeExists("account"))
-            .andExpect(model().attributeExists("whitelist"))
             .andExpect(model().attributeExists("tags"));
     }
 
@@ -169,6 +225,7 @@ class SettingsControllerTest {
 
         Tag newTag = tagRepository.findByTagTitle("newTag");
         assertNotNull(newTag);
+        entityManager.clear(); // 조인 테이블을 바로 고치므로 다시 읽는다
         assertTrue(accountRepository.findByNickname("lhr").getTags().contains(newTag));
     }
 
@@ -180,7 +237,8 @@ class SettingsControllerTest {
         Tag newTag = tagRepository.save(Tag.builder().tagTitle("newTag").build());
         accountService.addTag(lhr,newTag);
 
-        assertTrue(lhr.getTags().contains(newTag));
+        entityManager.clear();
+        assertTrue(accountRepository.findByNickname("lhr").getTags().contains(newTag));
 
         TagForm tagForm = new TagForm();
         tagForm.setTagTitle("newTag");
@@ -190,7 +248,8 @@ class SettingsControllerTest {
                 .content(objectMapper.writeValueAsString(tagForm))
                 .with(csrf()))
             .andExpect(status().isOk());
-        assertFalse(lhr.getTags().contains(newTag));
+        entityManager.clear();
+        assertFalse(accountRepository.findByNickname("lhr").getTags().contains(newTag));
     }
 
     @WithAccount("lhr")
@@ -217,6 +276,7 @@ class SettingsControllerTest {
                 .with(csrf()))
             .andExpect(status().isOk());
 
+        entityManager.clear();
         Account lhr = accountRepository.findByNickname("lhr");
         Zone zone = zoneRepository.findByCityAndProvince(testZone.getCity(),
             testZone.getProvince());
@@ -240,6 +300,80 @@ class SettingsControllerTest {
                 .content(objectMapper.writeValueAsString(zoneForm))
                 .with(csrf()))
             .andExpect(status().isOk());
-        assertFalse(lhr.getZones().contains(zone));
+        entityManager.clear();
+        assertFalse(accountRepository.findByNickname("lhr").getZones().contains(zone));
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("태그 한 번에 수정")
+    @Test
+    void updateTagsInBatch() throws Exception {
+        Account lhr = accountRepository.findByNickname("lhr");
+        accountService.addTag(lhr, tagService.findOrCreateNew("oldTag"));
+        entityManager.flush();
+
+        BatchUpdateForm batchUpdateForm = new BatchUpdateForm();
+        batchUpdateForm.setAdded(List.of("batchTag1", " batchTag2 "));
+        batchUpdateForm.setRemoved(List.of("oldTag", "unknownTag"));
+
+        mockMvc.perform(post(SettingsController.SETTINGS_TAGS_URL + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchUpdateForm))
+                .with(csrf()))
+            .andExpect(status().isOk());
+
+        // 조인 테이블을 바로 고치므로 다시 읽어서 확인한다
+        entityManager.clear();
+        Set<String> tags = accountRepository.findByNickname("lhr").getTags().stream()
+            .map(Tag::getTagTitle).collect(Collectors.toSet());
+        assertEquals(Set.of("batchTag1", "batchTag2"), tags);
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("태그 한 번에 수정 - 빈 제목이나 20자가 넘는 제목이면 400")
+    @Test
+    void updateTagsInBatch_invalidTitle() throws Exception {
+        BatchUpdateForm batchUpdateForm = new BatchUpdateForm();
+        batchUpdateForm.setAdded(List.of("validTag", "   "));
+
+        mockMvc.perform(post(SettingsController.SETTINGS_TAGS_URL + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchUpdateForm))
+                .with(csrf()))
+            .andExpect(status().isBadRequest());
+
+        batchUpdateForm.setAdded(List.of("a".repeat(TagService.MAX_TITLE_LENGTH + 1)));
+        mockMvc.perform(post(SettingsController.SETTINGS_TAGS_URL + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchUpdateForm))
+                .with(csrf()))
+            .andExpect(status().isBadRequest());
+
+        assertNull(tagRepository.findByTagTitle("validTag"));
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("지역 한 번에 수정 - 없는 지역이면 400")
+    @Test
+    void updateZonesInBatch() throws Exception {
+        BatchUpdateForm batchUpdateForm = new BatchUpdateForm();
+        batchUpdateForm.setAdded(List.of(testZone.toString()));
+
+        mockMvc.perform(post("/settings/zones/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchUpdateForm))
+                .with(csrf()))
+            .andExpect(status().isOk());
+
+        entityManager.clear();
+        assertEquals(Set.of(testZone.toString()), accountRepository.findByNickname("lhr").getZones().stream()
+            .map(Zone::toString).collect(Collectors.toSet()));
+
+        batchUpdateForm.setAdded(List.of("없는시(nowhere)/없는도"));
+        mockMvc.perform(post("/settings/zones/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchUpdateForm))
+                .with(csrf()))
+            .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,341 @@
+package com.studyolle.study;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyolle.WithAccount;
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.UserAccount;
+import com.studyolle.domain.Account;
+import com.studyolle.domain.Study;
+import com.studyolle.domain.Tag;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.TagRepository;
+import com.studyolle.zone.ZoneRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WithoutBackgroundJobs
+@AutoConfigureMockMvc
+class StudyControllerTest {
+
+    static final int MEMBERS = 20;
+    static final int TAGS = 5;
+    static final int ZONES = 3;
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired StudyRepository studyRepository;
+    @Autowired StudyService studyService;
+    @Autowired StudyCounterReconciler studyCounterReconciler;
+    @Autowired StudyPathCache studyPathCache;
+    @Autowired StudyRoleCache studyRoleCache;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TagRepository tagRepository;
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void beforeEach() {
+        // 앞선 테스트가 롤백한 스터디의 id 가 남아 있지 않도록 비운다
+        studyPathCache.invalidate("test-study");
+        studyPathCache.invalidate("open-study");
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("스터디 화면은 구성원을 뺀 컬렉션마다 한 번씩 읽고 행 수는 컬렉션 크기의 합")
+    @Test
+    void viewStudy_loads_collections_separately() throws Exception {
+        createStudy();
+        Statistics statistics = clearStatistics();
+
+        mockMvc.perform(get("/study/test-study"))
+            .andExpect(status().isOk())
+            .andExpect(view().name("study/view"))
+            .andExpect(model().attributeExists("study"));
+
+        assertStudyLoadedSeparately(statistics, 1, 1); // 본문은 소개 화면에서만 읽는다
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("구성원 화면도 같은 방식으로 읽는다")
+    @Test
+    void viewStudyMembers_loads_collections_separately() throws Exception {
+        createStudy();
+        Statistics statistics = clearStatistics();
+
+        mockMvc.perform(get("/study/test-study/members"))
+            .andExpect(status().isOk())
+            .andExpect(view().name("study/members"))
+            .andExpect(model().attributeExists("memberPage"));
+
+        assertStudyLoadedSeparately(statistics, 1, 0); // 구성원 한 쪽은 projection 으로 읽는다
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("두 번째 요청부터는 path 를 캐시에서 찾고 기본 키로 읽는다")
+    @Test
+    void viewStudy_resolves_path_from_cache() throws Exception {
+        createStudy();
+        mockMvc.perform(get("/study/test-study")).andExpect(status().isOk());
+        entityManager.clear();
+        long hits = studyPathCache.hitCount();
+        Statistics statistics = clearStatistics();
+
+        mockMvc.perform(get("/study/test-study")).andExpect(status().isOk());
+
+        assertEquals(hits + 1, studyPathCache.hitCount());
+        assertEquals(5, statistics.getPrepareStatementCount()); // path 와 역할 조회가 빠지고 본문 1번이 남는다
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("배너나 소개를 바꿔도 path 캐시는 그대로 쓴다")
+    @Test
+    void studyUpdate_keeps_path_cached() throws Exception {
+        createStudy();
+        Study study = studyService.getStudy("test-study");
+        studyService.enableStudyBanner(study);
+        long hits = studyPathCache.hitCount();
+
+        studyService.getStudy("test-study");
+
+        assertEquals(hits + 1, studyPathCache.hitCount());
+    }
+
+    @DisplayName("없는 path 는 잠깐 기억해서 다시 DB 를 치지 않는다")
+    @Test
+    void missingPath_is_cached() {
+        studyPathCache.invalidate("no-such-study");
+        assertThrows(IllegalArgumentException.class, () -> studyService.getStudy("no-such-study"));
+        long hits = studyPathCache.hitCount();
+        Statistics statistics = clearStatistics();
+
+        assertThrows(IllegalArgumentException.class, () -> studyService.getStudy("no-such-study"));
+
+        assertEquals(hits + 1, studyPathCache.hitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @DisplayName("새로 만든 스터디는 없다고 기억해 둔 path 를 지운다")
+    @Test
+    void createStudy_invalidates_missing_path() {
+        assertThrows(IllegalArgumentException.class, () -> studyService.getStudy("open-study"));
+
+        Study study = createOpenStudy();
+
+        assertEquals(study.getId(), studyService.getStudy("open-study").getId());
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("구성원 목록은 가입 순서대로 커서를 넘기며 나눠 읽는다")
+    @Test
+    void studyMembers_keyset_pages() throws Exception {
+        createStudy();
+
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/study/test-study/members")
+                .accept(MediaType.APPLICATION_JSON).param("size", "8");
+            if (after != null) {
+                request.param("after", after);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members[0].nickname").exists())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("members").forEach(member -> ids.add(member.get("id").asLong()));
+            after = page.get("next").isNull() ? null : page.get("next").asText();
+            pages++;
+        } while (after != null);
+
+        assertEquals(3, pages);
+        assertEquals(MEMBERS, ids.size());
+        assertEquals(MEMBERS, Set.copyOf(ids).size());
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("가입과 탈퇴는 인원 수를 한 번씩만 바꾼다")
+    @Test
+    void joinAndLeave() throws Exception {
+        Long studyId = createOpenStudy().getId();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/study/open-study/join").with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/study/open-study/members"));
+        }
+        entityManager.clear();
+        assertEquals(1, studyRepository.findById(studyId).orElseThrow().getMemberCount());
+        assertEquals(1, studyRepository.findById(studyId).orElseThrow().getMembers().size());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/study/open-study/leave").with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        }
+        entityManager.clear();
+        assertEquals(0, studyRepository.findById(studyId).orElseThrow().getMemberCount());
+        assertEquals(0, studyRepository.findById(studyId).orElseThrow().getMembers().size());
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("모집 중이 아닌 스터디에는 가입되지 않는다")
+    @Test
+    void join_not_recruiting() throws Exception {
+        Study study = createOpenStudy();
+        study.setRecruiting(false);
+        entityManager.flush();
+
+        mockMvc.perform(post("/study/open-study/join").with(csrf()))
+            .andExpect(status().is3xxRedirection());
+
+        entityManager.clear();
+        assertEquals(0, studyRepository.findById(study.getId()).orElseThrow().getMemberCount());
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("화면의 가입/탈퇴/관리 여부는 역할 캐시로 보고 가입과 탈퇴 뒤에 바로 바뀐다")
+    @Test
+    void studyRoles_follow_join_and_leave() throws Exception {
+        Study study = createOpenStudy();
+        UserAccount lhr = new UserAccount(accountRepository.findByNickname("lhr"));
+        UserAccount manager = new UserAccount(accountRepository.findByNickname("manager"));
+        assertTrue(studyRoleCache.isJoinable(study, lhr));
+        assertTrue(studyRoleCache.isManager(study, manager));
+        assertFalse(studyRoleCache.isJoinable(study, manager));
+
+        mockMvc.perform(post("/study/open-study/join").with(csrf()));
+        assertTrue(studyRoleCache.isMember(study, lhr));
+        assertFalse(studyRoleCache.isJoinable(study, lhr));
+        assertFalse(studyRoleCache.isManager(study, lhr));
+
+        mockMvc.perform(post("/study/open-study/leave").with(csrf()));
+        assertFalse(studyRoleCache.isMember(study, lhr));
+        assertTrue(studyRoleCache.isJoinable(study, lhr));
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("설정 화면은 조인 테이블에 관리자로 있는 계정만 들어간다")
+    @Test
+    void settings_only_for_managers() throws Exception {
+        createStudy();
+        createOpenStudy();
+
+        mockMvc.perform(get("/study/test-study/settings/description"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/study/open-study/settings/description"))
+            .andExpect(status().isForbidden());
+    }
+
+    @DisplayName("어긋난 인원 수는 조인 테이블 기준으로 다시 센다")
+    @Test
+    void reconcileCounters() {
+        Long studyId = createOpenStudy().getId();
+        entityManager.createNativeQuery("update study set member_count = 5, manager_count = 0 where id = :id")
+            .setParameter("id", studyId).executeUpdate();
+
+        studyCounterReconciler.reconcile();
+
+        entityManager.clear();
+        Study study = studyRepository.findById(studyId).orElseThrow();
+        assertEquals(0, study.getMemberCount());
+        assertEquals(1, study.getManagerCount());
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("근처 스터디 - 음수 개수나 반경은 0 으로 맞춘다")
+    @Test
+    void nearbyStudies_negative_params() throws Exception {
+        mockMvc.perform(get("/studies/nearby").param("limit", "-1").param("radius", "-5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private Study createOpenStudy() {
+        Account manager = accountRepository.save(Account.builder().nickname("manager")
+            .email("manager@email.com").password("123456789").build());
+        Study study = new Study();
+        study.setPath("open-study");
+        study.setTitle("모집 중인 스터디");
+        study.setShortDescription("짧은 소개");
+        study.setPublished(true);
+        study.setRecruiting(true);
+        studyService.createNewStudy(study, manager);
+        entityManager.flush();
+        return study;
+    }
+
+    private void assertStudyLoadedSeparately(Statistics statistics, int extraStatements, int extraEntities) {
+        // 현재 계정 1번, 스터디 1번, 컬렉션 3번, 내 역할 1번. 구성원 컬렉션은 읽지 않는다
+        assertEquals(6 + extraStatements, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1 + 1 + TAGS + ZONES + extraEntities, statistics.getEntityLoadCount());
+    }
+
+    private void createStudy() {
+        Account manager = accountRepository.findByNickname("lhr");
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        study.setShortDescription("짧은 소개");
+        study.setFullDescription("긴 소개");
+        study.setPublished(true);
+        study.setRecruiting(true);
+        study.addManager(manager);
+        study.setMembers(IntStream.range(0, MEMBERS)
+            .mapToObj(i -> accountRepository.save(Account.builder().nickname("member" + i)
+                .email("member" + i + "@email.com").password("123456789").build()))
+            .collect(Collectors.toSet()));
+        study.setTags(IntStream.range(0, TAGS)
+            .mapToObj(i -> tagRepository.save(Tag.builder().tagTitle("study-tag-" + i).build()))
+            .collect(Collectors.toSet()));
+        study.setZones(zoneRegistry.getAll().stream().limit(ZONES)
+            .map(zone -> entityManager.getReference(Zone.class, zone.getId()))
+            .collect(Collectors.toSet()));
+        studyRepository.save(study);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics clearStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
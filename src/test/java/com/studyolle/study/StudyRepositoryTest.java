@@ -0,0 +1,56 @@
+package com.studyolle.study;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.domain.Study;
+import javax.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest
+class StudyRepositoryTest {
+
+    @Autowired StudyRepository studyRepository;
+    @Autowired EntityManager entityManager;
+
+    private final String fullDescription = "1MB 소개".repeat(128 * 1024);
+
+    private Long studyId;
+
+    @BeforeEach
+    void beforeEach() {
+        Study study = new Study();
+        study.setPath("test-study");
+        study.setTitle("테스트 스터디");
+        study.setShortDescription("짧은 소개");
+        study.setFullDescription(fullDescription);
+        studyId = studyRepository.save(study).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @DisplayName("태그 수정용 조회는 스터디 본문을 읽지 않는다")
+    @Test
+    void findWithTagsById_does_not_load_content() {
+        Study study = studyRepository.findWithTagsById(studyId);
+
+        assertFalse(Hibernate.isInitialized(study.getContent()));
+    }
+
+    @DisplayName("본문은 필요할 때 읽는다")
+    @Test
+    void fullDescription_loaded_on_access() {
+        Study study = studyRepository.findById(studyId).orElseThrow();
+
+        assertEquals(fullDescription, study.getFullDescription());
+        assertTrue(Hibernate.isInitialized(study.getContent()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.studyolle.study;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.domain.Study;
+import com.studyolle.domain.Tag;
+import com.studyolle.domain.Zone;
+import com.studyolle.tag.TagRepository;
+import com.studyolle.zone.ZoneRegistry;
+import com.studyolle.zone.ZoneRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WithoutBackgroundJobs
+class StudyServiceTest {
+
+    @Autowired StudyService studyService;
+    @Autowired StudyRepository studyRepository;
+    @Autowired TagRepository tagRepository;
+    @Autowired ZoneRepository zoneRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired StudyLocationIndex studyLocationIndex;
+
+    Study study;
+    Tag tag;
+    Zone zone;
+    Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        Study newStudy = new Study();
+        newStudy.setPath("test-study");
+        newStudy.setTitle("테스트 스터디");
+        newStudy.setShortDescription("짧은 소개");
+        newStudy.setFullDescription("긴 소개");
+        study = studyRepository.save(newStudy);
+        tag = tagRepository.save(Tag.builder().tagTitle("spring").build());
+        zone = zoneRepository.save(Zone.builder().city("test").localNameOfCity("테스트시").province("테스트주").build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("스터디 태그/지역 추가와 삭제는 변경마다 쿼리 하나")
+    @Test
+    void addAndRemove_one_statement_each() {
+        studyService.addTag(study, tag);
+        studyService.addZone(study, zone);
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        studyService.removeTag(study, tag);
+        studyService.removeZone(study, zone);
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @DisplayName("가까운 스터디는 공개되어 모집 중인 것만 가까운 순으로")
+    @Test
+    void findNearbyStudies() {
+        Zone seoul = zoneRegistry.findByCityAndProvince("Seoul", "none");
+        openStudy("near", zoneRegistry.findByCityAndProvince("Suwon", "Gyeonggi"));
+        openStudy("here", seoul);
+        openStudy("far", zoneRegistry.findByCityAndProvince("Busan", "none"));
+        studyRepository.addZones(study.getId(), Set.of(seoul.getId())); // 공개 전
+        studyLocationIndex.rebuild();
+
+        List<NearbyStudy> nearby = studyService.findNearbyStudies(Set.of(seoul), 50, 10);
+
+        assertEquals(List.of("here", "near"), nearby.stream().map(NearbyStudy::getPath).collect(Collectors.toList()));
+        assertEquals(0.0, nearby.get(0).getDistance());
+        assertEquals(1, studyService.findNearbyStudies(Set.of(seoul), 50, 1).size());
+    }
+
+    @DisplayName("스터디 지역이 바뀌면 커밋 후 인덱스도 바뀐다")
+    @Test
+    void locationIndex_follows_zone_changes() {
+        Zone seoul = zoneRegistry.findByCityAndProvince("Seoul", "none");
+        try {
+            studyService.addZone(study, seoul);
+            assertFalse(isIndexedNear(seoul)); // 커밋 전에는 그대로
+            commitAndRestart();
+            assertTrue(isIndexedNear(seoul));
+
+            studyService.removeZone(study, seoul);
+            commitAndRestart();
+            assertFalse(isIndexedNear(seoul));
+        } finally {
+            // beforeEach 에서 만든 것까지 커밋됐으므로 직접 지운다
+            studyRepository.deleteById(study.getId());
+            tagRepository.deleteById(tag.getId());
+            zoneRepository.deleteById(zone.getId());
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+    }
+
+    @AfterTransaction
+    void rebuildLocationIndex() {
+        studyLocationIndex.rebuild();
+    }
+
+    private boolean isIndexedNear(Zone zone) {
+        return studyLocationIndex.findNearby(Set.of(zone), 1).stream()
+            .anyMatch(hit -> hit.getStudyId().equals(study.getId()));
+    }
+
+    private void commitAndRestart() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+    }
+
+    private void openStudy(String path, Zone zone) {
+        Study newStudy = new Study();
+        newStudy.setPath(path);
+        newStudy.setTitle(path);
+        newStudy.setShortDescription("짧은 소개");
+        newStudy.setPublished(true);
+        newStudy.setRecruiting(true);
+        studyRepository.saveAndFlush(newStudy);
+        studyRepository.addZones(newStudy.getId(), Set.of(zone.getId()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.studyolle.tag;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.studyolle.WithAccount;
+import com.studyolle.account.AccountRepository;
+import com.studyolle.account.AccountService;
+import com.studyolle.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TagControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TagService tagService;
+    @Autowired TagRepository tagRepository;
+
+    @Autowired TagSuggestIndex tagSuggestIndex;
+    @Autowired AccountService accountService;
+    @Autowired AccountRepository accountRepository;
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+        tagRepository.deleteAll();
+        tagSuggestIndex.rebuild();
+    }
+
+    @WithAccount("lhr")
+    @DisplayName("태그 자동완성 - 접두어 먼저, 그다음 인기순")
+    @Test
+    void suggest() throws Exception {
+        tagService.findOrCreateNew("spring");
+        tagService.findOrCreateNew("spring-boot");
+        tagService.findOrCreateNew("jpa");
+        tagService.findOrCreateNew("자바");
+        tagService.findOrCreateNew("자바스크립트");
+        tagService.findOrCreateNew("코틀린과 자바");
+
+        // 새로 만든 태그는 인덱스를 다시 만들기 전에도 찾을 수 있다
+        mockMvc.perform(get("/tags/suggest").param("q", "자바"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[\"자바\", \"자바스크립트\", \"코틀린과 자바\"]", true));
+
+        Account account = accountRepository.findByNickname("lhr");
+        accountService.addTag(account, tagRepository.findByTagTitle("spring-boot"));
+        tagSuggestIndex.rebuild();
+
+        mockMvc.perform(get("/tags/suggest").param("q", "Spr"))
+            .andExpect(content().json("[\"spring-boot\", \"spring\"]", true));
+        mockMvc.perform(get("/tags/suggest").param("q", "boot"))
+            .andExpect(content().json("[\"spring-boot\"]", true));
+        mockMvc.perform(get("/tags/suggest").param("q", "p").param("limit", "1"))
+            .andExpect(content().json("[\"spring-boot\"]", true));
+    }
+}
@@ -0,0 +1,47 @@
+package com.studyolle.tag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.domain.Tag;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WithoutBackgroundJobs
+class TagRepositoryTest {
+
+    @Autowired TagRepository tagRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    @DisplayName("여러 개를 저장할 때 시퀀스 조회와 insert 를 묶어서 보냄")
+    @Test
+    void saveAll_is_batched() {
+        List<Tag> tags = IntStream.range(0, 200)
+            .mapToObj(i -> Tag.builder().tagTitle("batch-" + i).build())
+            .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        tagRepository.saveAll(tags);
+        entityManager.flush();
+
+        assertEquals(200, statistics.getEntityInsertCount());
+        // 시퀀스 조회 5번 이하 + insert 묶음 4개
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+            "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+}
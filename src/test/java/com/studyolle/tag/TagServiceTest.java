@@ -0,0 +1,116 @@
+package com.studyolle.tag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.studyolle.domain.Tag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class TagServiceTest {
+
+    @Autowired TagService tagService;
+    @Autowired TagRepository tagRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void afterEach() {
+        tagRepository.deleteAll();
+    }
+
+    @DisplayName("태그 제목 정리")
+    @Test
+    void normalize() {
+        assertEquals("spring boot", TagService.normalize("  spring \t  boot "));
+        // 한글 자모로 조합된 글자(NFD)는 완성형(NFC)으로 바꾼다
+        assertEquals("자바", TagService.normalize("\u110c\u1161\u1107\u1161"));
+    }
+
+    @DisplayName("같은 새 태그를 동시에 만들어도 하나만 생김")
+    @Test
+    void findOrCreateNew_concurrently() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String title = i % 2 == 0 ? "new tag" : "  new   tag ";
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tagService.findOrCreateNew(title).getId();
+            }));
+        }
+
+        start.countDown();
+        Set<Long> ids = futures.stream().map(future -> {
+            try {
+                return future.get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).collect(Collectors.toSet());
+        executor.shutdown();
+
+        assertEquals(1, ids.size());
+        List<Tag> tags = tagRepository.findAll();
+        assertEquals(1, tags.size());
+        assertEquals("new tag", tags.get(0).getTagTitle());
+    }
+
+    @DisplayName("캐시에 있는 태그는 DB 에서 다시 읽지 않고 참조만 돌려줌")
+    @Test
+    void findOrCreateNew_cached() {
+        Long id = tagService.findOrCreateNew("cached tag").getId();
+
+        Tag tag = tagService.findOrCreateNew(" cached  tag");
+
+        assertEquals(id, tag.getId());
+        assertFalse(Hibernate.isInitialized(tag));
+    }
+
+    @DisplayName("바깥 트랜잭션 안에서 같은 새 태그를 두 번 찾아도 기다리지 않음")
+    @Test
+    void findOrCreateNew_twice_in_transaction() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<List<Long>> ids = executor.submit(() -> transactionTemplate.execute(status -> List.of(
+            tagService.findOrCreateNew("tx tag").getId(),
+            tagService.findOrCreateNew("tx  tag").getId())));
+
+        assertEquals(1, Set.copyOf(ids.get(5, TimeUnit.SECONDS)).size());
+        executor.shutdown();
+        assertEquals(1, tagRepository.findAll().size());
+    }
+
+    @DisplayName("바깥 트랜잭션이 롤백돼도 새 태그는 커밋되어 캐시와 DB 가 어긋나지 않음")
+    @Test
+    void findOrCreateNew_outer_rollback() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Long id = transactionTemplate.execute(status -> {
+            Long created = tagService.findOrCreateNew("rolled back").getId();
+            status.setRollbackOnly();
+            return created;
+        });
+
+        assertEquals(id, tagRepository.findByTagTitle("rolled back").getId());
+        assertEquals(id, tagService.findOrCreateNew("rolled back").getId());
+    }
+}
@@ -0,0 +1,46 @@
+package com.studyolle.zone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.studyolle.WithoutBackgroundJobs;
+import com.studyolle.zone.ZoneDataLoader.Result;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@SpringBootTest
+@WithoutBackgroundJobs
+class ZoneDataLoaderTest {
+
+    @Autowired ZoneDataLoader zoneDataLoader;
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired ZoneRepository zoneRepository;
+
+    @DisplayName("시작할 때 클래스패스 CSV 를 모두 넣는다")
+    @Test
+    void loadedOnStartup() {
+        assertEquals(85, zoneRepository.count());
+        assertEquals(85, zoneRegistry.getAll().size());
+    }
+
+    @DisplayName("있는 지역은 고치고 없는 지역만 넣으며 잘못된 줄은 건너뛴다")
+    @Test
+    void upsert() throws Exception {
+        String csv = "Seoul,서울,none\nAtlantis,아틀란티스,none\n\nbroken line\nAtlantis,아틀란티스,none\n";
+
+        Result result = zoneDataLoader.load(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getRows());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals("서울", zoneRepository.findByCityAndProvince("Seoul", "none").getLocalNameOfCity());
+        assertNotNull(zoneRepository.findByCityAndProvince("Atlantis", "none"));
+        assertEquals(86, zoneRepository.count());
+    }
+}
@@ -0,0 +1,55 @@
+package com.studyolle.zone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.studyolle.domain.Zone;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ZoneRegistryTest {
+
+    @Autowired ZoneRegistry zoneRegistry;
+    @Autowired ZoneRepository zoneRepository;
+
+    @DisplayName("표시 이름, 도시/도, id 로 같은 지역을 찾는다")
+    @Test
+    void lookup() {
+        Zone seoul = zoneRepository.findByCityAndProvince("Seoul", "none");
+
+        assertEquals(seoul, zoneRegistry.findByDisplayName(seoul.toString()));
+        assertEquals(seoul, zoneRegistry.findByCityAndProvince("Seoul", "none"));
+        assertEquals(seoul, zoneRegistry.findById(seoul.getId()));
+        assertEquals(zoneRepository.count(), zoneRegistry.getAll().size());
+        assertTrue(zoneRegistry.getWhitelistJson().contains("\"" + seoul + "\""));
+    }
+
+    @DisplayName("없거나 형식이 틀린 이름은 null")
+    @Test
+    void lookup_unknown() {
+        assertNull(zoneRegistry.findByDisplayName("Atlantis(아틀란티스)/none"));
+        assertNull(zoneRegistry.findByDisplayName("Seoul"));
+        assertNull(zoneRegistry.findByDisplayName(null));
+    }
+
+    @DisplayName("반경 안의 지역만 거리와 함께 찾는다")
+    @Test
+    void findWithin() {
+        Zone seoul = zoneRegistry.findByCityAndProvince("Seoul", "none");
+        Zone suwon = zoneRegistry.findByCityAndProvince("Suwon", "Gyeonggi");
+        Zone busan = zoneRegistry.findByCityAndProvince("Busan", "none");
+
+        Map<Long, Double> within = zoneRegistry.findWithin(seoul.getLatitude(), seoul.getLongitude(), 40);
+
+        assertEquals(0.0, within.get(seoul.getId()));
+        assertTrue(within.get(suwon.getId()) > 30 && within.get(suwon.getId()) < 40);
+        assertFalse(within.containsKey(busan.getId()));
+        assertEquals(zoneRegistry.getAll().size(), zoneRegistry.findWithin(36, 127.5, 1000).size());
+    }
+}